@@ -3,6 +3,8 @@ package com.example.dts;
 import android.app.Dialog;
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,14 +18,12 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
+import com.example.dts.core.QueuedAction;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,20 +32,46 @@ public class AdminActionDialog extends DialogFragment {
     private final String docId;
     private final String docName;
     private final String docStatus;
+    // The state the row showed when the approver opened it; the Outbox refuses the action if it moved
+    private final long chainVersion;
+    private final int approverIndex;
+
+    // Bulk mode: docId -> row for every selected request, and the one action for all of them
+    private final Map<String, RequestModel> bulkRows;
+    private final String bulkAction;
 
-    private DatabaseReference dbRef;
     private FirebaseAuth mAuth;
 
-    public AdminActionDialog(String docId, String docName, String docStatus) {
+    // How long the dialog waits for the server before leaving the action to the Outbox
+    private static final long RESULT_WAIT_MS = 8_000;
+    private final Handler timeoutHandler = new Handler(Looper.getMainLooper());
+    private Outbox outbox;
+    private Outbox.ResultCallback pendingResult;
+
+    public AdminActionDialog(String docId, String docName, String docStatus, long chainVersion,
+                             int approverIndex) {
         this.docId = docId;
         this.docName = docName;
         this.docStatus = docStatus;
+        this.chainVersion = chainVersion;
+        this.approverIndex = approverIndex;
+        this.bulkRows = null;
+        this.bulkAction = null;
+    }
+
+    public AdminActionDialog(Map<String, RequestModel> bulkRows, String bulkAction) {
+        this.docId = null;
+        this.docName = null;
+        this.docStatus = null;
+        this.chainVersion = QueuedAction.UNKNOWN;
+        this.approverIndex = (int) QueuedAction.UNKNOWN;
+        this.bulkRows = bulkRows;
+        this.bulkAction = bulkAction;
     }
 
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
-        dbRef = FirebaseDatabase.getInstance().getReference();
         mAuth = FirebaseAuth.getInstance();
 
         AlertDialog.Builder builder = new AlertDialog.Builder(requireActivity());
@@ -68,8 +94,17 @@ public class AdminActionDialog extends DialogFragment {
         progressBar.setScaleX(1.3f);
         progressBar.setScaleY(1.3f);
 
-        tvDialogTitle.setText("Action for " + docName);
-        tvDocInfo.setText("Review this document and take necessary action.");
+        if (bulkRows != null) {
+            // 🔹 One action and one remark for every selected request; the other button is hidden
+            boolean approve = "Approved".equals(bulkAction);
+            tvDialogTitle.setText((approve ? "Approve " : "Reject ") + bulkRows.size() + " requests");
+            tvDocInfo.setText("The remark below is added to each of them.");
+            (approve ? btnReject : btnApprove).setVisibility(View.GONE);
+            btnComment.setVisibility(View.GONE);
+        } else {
+            tvDialogTitle.setText("Action for " + docName);
+            tvDocInfo.setText("Review this document and take necessary action.");
+        }
 
         btnApprove.setOnClickListener(v -> {
             toggleLoading(true, progressBar, btnApprove, btnReject, btnComment, btnCancel);
@@ -110,96 +145,117 @@ public class AdminActionDialog extends DialogFragment {
             return;
         }
 
-        String adminKey = adminEmail.replace("@", "_").replace(".", "_").toLowerCase();
-
-        dbRef.child("documents").child(docId).get().addOnSuccessListener(snapshot -> {
-            if (!snapshot.exists()) {
-                toggleLoading(false, progressBar, buttons);
-                return;
-            }
-
-            Long index = snapshot.child("currentApproverIndex").getValue(Long.class);
-            if (index == null) index = 0L;
-
-            List<String> approverChain = new ArrayList<>();
-            for (DataSnapshot a : snapshot.child("approverChain").getChildren()) {
-                String value = a.getValue(String.class);
-                if (value != null) approverChain.add(value);
+        long now = System.currentTimeMillis();
+        if (bulkRows != null) {
+            List<String> docIds = new ArrayList<>(bulkRows.keySet());
+            List<QueuedAction> actions = new ArrayList<>();
+            for (String id : docIds) {
+                RequestModel row = bulkRows.get(id);
+                actions.add(QueuedAction.transition(Outbox.newActionId(), id, adminEmail, action, remark,
+                        row.getChainVersion(), row.getApproverIndex(), now));
             }
+            send(actions, progressBar, buttons, (actionIds, refused) ->
+                    reportBulk(safeContext, action, docIds, actionIds, refused));
+            return;
+        }
 
-            if (approverChain.isEmpty()) {
+        // A comment doesn't move the document, so it isn't tied to the stage it was written at
+        boolean decision = !"Commented".equals(action);
+        QueuedAction queued = QueuedAction.transition(Outbox.newActionId(), docId, adminEmail, action, remark,
+                decision ? chainVersion : QueuedAction.UNKNOWN, decision ? approverIndex : (int) QueuedAction.UNKNOWN,
+                now);
+        send(Collections.singletonList(queued), progressBar, buttons, (actionIds, refused) -> {
+            if (!refused.isEmpty()) {
+                // Someone else moved the document first, or it is not this approver's turn
                 if (safeContext != null)
-                    Toast.makeText(safeContext, "Invalid document data", Toast.LENGTH_SHORT).show();
-                toggleLoading(false, progressBar, buttons);
+                    Toast.makeText(safeContext, refused.values().iterator().next(), Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            long timestamp = System.currentTimeMillis();
-            String formattedTime = android.text.format.DateFormat.format("dd MMM yyyy, hh:mm a", timestamp).toString();
+            String formattedTime = android.text.format.DateFormat
+                    .format("dd MMM yyyy, hh:mm a", System.currentTimeMillis()).toString();
+            if (safeContext != null)
+                Toast.makeText(
+                        safeContext,
+                        "Action saved: " + action + " at " + formattedTime,
+                        Toast.LENGTH_SHORT
+                ).show();
+        });
+    }
 
-            Map<String, Object> updates = new HashMap<>();
+    /**
+     * Hands actions to the Outbox. Offline, or if the server hasn't answered within
+     * RESULT_WAIT_MS, the dialog closes and the Outbox sends them when it can.
+     */
+    private void send(List<QueuedAction> actions, ProgressBar progressBar, MaterialButton[] buttons,
+                      Outbox.ResultCallback outcome) {
+        Context safeContext = getActivity();
+        outbox = Outbox.getInstance(requireContext());
+        if (!outbox.isOnline()) {
+            outbox.enqueue(actions, null);
+            if (safeContext != null)
+                Toast.makeText(safeContext, "You’re offline. Saved, it will be sent automatically.",
+                        Toast.LENGTH_SHORT).show();
+            finishAction();
+            return;
+        }
 
-            String remarksPath = "documents/" + docId + "/remarks/" + adminKey + "/" + timestamp;
-            Map<String, Object> remarkData = new HashMap<>();
-            remarkData.put("status", action);
-            remarkData.put("comment", remark);
-            remarkData.put("time", timestamp);
-            updates.put(remarksPath, remarkData);
+        pendingResult = (actionIds, refused) -> {
+            pendingResult = null;
+            timeoutHandler.removeCallbacksAndMessages(null);
+            toggleLoading(false, progressBar, buttons);
+            outcome.onResults(actionIds, refused);
+            finishAction();
+        };
+        outbox.enqueue(actions, pendingResult);
+
+        // 📶 Weak signal: don't hold the approver here, the queue keeps retrying on its own
+        timeoutHandler.postDelayed(() -> {
+            if (pendingResult == null) return;
+            outbox.cancel(pendingResult);
+            pendingResult = null;
+            if (safeContext != null)
+                Toast.makeText(safeContext, "Saved. It will be sent when the connection improves.",
+                        Toast.LENGTH_SHORT).show();
+            finishAction();
+        }, RESULT_WAIT_MS);
+    }
 
-            if (!"Commented".equals(action)) {
-                updates.put("documents/" + docId + "/approvalStatus/" + adminKey, action);
-            }
+    /** Every selected request went out in one write; the ones the server refused are listed, not retried. */
+    private void reportBulk(Context safeContext, String action, List<String> docIds, List<String> actionIds,
+                            Map<String, String> refused) {
+        if (safeContext == null) return;
+        int saved = docIds.size() - refused.size();
+        Toast.makeText(safeContext, action + " " + saved + " of " + docIds.size() + " requests",
+                Toast.LENGTH_SHORT).show();
+        if (refused.isEmpty()) return;
+
+        StringBuilder failures = new StringBuilder();
+        for (int i = 0; i < docIds.size(); i++) {
+            String reason = refused.get(actionIds.get(i));
+            if (reason == null) continue;
+            failures.append("• ").append(bulkRows.get(docIds.get(i)).getName()).append(": ").append(reason).append('\n');
+        }
+        new AlertDialog.Builder(safeContext)
+                .setTitle(refused.size() + " requests were not " + action.toLowerCase())
+                .setMessage(failures.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
+    }
 
-            if ("Approved".equals(action)) {
-                if (index + 1 < approverChain.size()) {
-                    updates.put("documents/" + docId + "/currentApproverIndex", index + 1);
-                    updates.put("documents/" + docId + "/status", "Pending");
-                    updates.put("documents/" + docId + "/overallStatus", "Pending");
-                } else {
-                    updates.put("documents/" + docId + "/status", "Approved");
-                    updates.put("documents/" + docId + "/overallStatus", "Approved");
-                }
-            } else if ("Rejected".equals(action)) {
-                updates.put("documents/" + docId + "/status", "Rejected");
-                updates.put("documents/" + docId + "/overallStatus", "Rejected");
-            } else if ("Commented".equals(action)) {
-                updates.put("documents/" + docId + "/status", "Pending");
-                updates.put("documents/" + docId + "/overallStatus", "Pending");
-            }
+    private void finishAction() {
+        if (bulkRows != null && getActivity() instanceof AdminDashboardActivity)
+            ((AdminDashboardActivity) getActivity()).onBulkActionFinished();
+        dismissAllowingStateLoss();
+    }
 
-            updates.put("documents/" + docId + "/updatedAt", timestamp);
-
-            dbRef.updateChildren(updates)
-                    .addOnSuccessListener(unused -> {
-                        toggleLoading(false, progressBar, buttons);
-                        if (safeContext != null)
-                            Toast.makeText(
-                                    safeContext,
-                                    "Action saved: " + action + " at " + formattedTime,
-                                    Toast.LENGTH_SHORT
-                            ).show();
-
-                        if (getActivity() instanceof AdminDashboardActivity) {
-                            ((AdminDashboardActivity) getActivity()).refreshDocuments();
-                        }
-
-                        dismissAllowingStateLoss();
-                    })
-                    .addOnFailureListener(e -> {
-                        toggleLoading(false, progressBar, buttons);
-                        if (safeContext != null)
-                            Toast.makeText(
-                                    safeContext,
-                                    "Failed: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT
-                            ).show();
-                    });
-
-        }).addOnFailureListener(e -> {
-            toggleLoading(false, progressBar, buttons);
-            if (safeContext != null)
-                Toast.makeText(safeContext, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        });
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // The actions stay queued; only this dialog stops listening
+        timeoutHandler.removeCallbacksAndMessages(null);
+        if (outbox != null && pendingResult != null) outbox.cancel(pendingResult);
+        pendingResult = null;
     }
 
     private void toggleLoading(boolean show, ProgressBar progressBar, MaterialButton... buttons) {
@@ -7,6 +7,8 @@ import android.text.TextWatcher;
 import android.view.MenuInflater;
 import android.view.View;
 import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -14,13 +16,24 @@ import androidx.appcompat.widget.PopupMenu;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.dts.core.ApproverView;
+import com.example.dts.core.DocumentDecoder;
+import com.example.dts.core.StatusCounters;
+import com.example.dts.core.VisibilityRules;
+import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import android.graphics.Typeface;
 import android.text.SpannableString;
@@ -34,10 +47,29 @@ public class AdminDashboardActivity extends AppCompatActivity {
     private RecyclerView recyclerRequests;
     private TextInputEditText etSearch;
     private ChipGroup chipGroupFilter;
+    private LinearLayout bulkBar;
+    private TextView tvSelectedCount, tvFilterPaging;
 
     private RequestAdapter adapter;
-    private final List<RequestModel> docList = new ArrayList<>();
-    private final List<RequestModel> filteredList = new ArrayList<>();
+    private RequestFilter requestFilter;
+    private VisibilityRules visibilityRules;
+
+    // Listeners live only while this screen is started; see SubscriptionRegistry
+    private SubscriptionRegistry subscriptions;
+    // approverInbox/{myKey} in cursor pages; only docIds in loaded pages are watched
+    private InboxPager inboxPager;
+    // docId -> subscription on documents/{docId}, for every entry in a loaded inbox page
+    private final Map<String, SubscriptionRegistry.Subscription> docListeners = new HashMap<>();
+
+    // Last session's rows, shown until the server answers; docIds the server has answered for
+    private DashboardCache cache;
+    private String cacheOwner;
+    private final Set<String> liveIds = new HashSet<>();
+    private final Set<String> cachedIds = new HashSet<>();
+
+    // studentId -> rows (by docId) waiting for that student's profile from UserDirectory
+    private final Map<String, Map<String, RequestModel>> awaitingStudent = new HashMap<>();
+    private boolean resolveScheduled;
 
     private DatabaseReference dbRef;
     private FirebaseAuth mAuth;
@@ -52,17 +84,47 @@ public class AdminDashboardActivity extends AppCompatActivity {
         recyclerRequests = findViewById(R.id.recyclerRequests);
         etSearch = findViewById(R.id.etSearch);
         chipGroupFilter = findViewById(R.id.chipGroupFilter);
+        bulkBar = findViewById(R.id.bulkBar);
+        tvSelectedCount = findViewById(R.id.tvSelectedCount);
+        tvFilterPaging = findViewById(R.id.tvFilterPaging);
 
-        recyclerRequests.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new RequestAdapter(filteredList);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerRequests.setLayoutManager(layoutManager);
+        adapter = new RequestAdapter();
         recyclerRequests.setAdapter(adapter);
+        adapter.setSelectionListener(count -> {
+            bulkBar.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+            tvSelectedCount.setText(count + " selected");
+        });
+        recyclerRequests.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                checkInboxPages();
+            }
+        });
+        // Rows sorted by docId, i.e. submission order, the same order the inbox pages load in
+        requestFilter = new RequestFilter(true, false, RequestModel::getId, rows -> {
+            // A short list may not reach the prefetch point by scrolling: check once it's laid out
+            adapter.submitList(rows, () -> recyclerRequests.post(this::checkInboxPages));
+            if (!rows.isEmpty()) StartupTrace.firstListShown(this, "AdminDashboard");
+        });
 
         dbRef = FirebaseDatabase.getInstance().getReference();
         mAuth = FirebaseAuth.getInstance();
+        subscriptions = SubscriptionRegistry.attach(this, "AdminDashboard");
 
+        showCachedRows();
         listenDocumentsForMe();
+        listenChipCounts();
+        // Moves any documents still carrying inline remarks to documentRemarks (no-op once done)
+        RemarksMigrator.runIfNeeded();
+        // Recounts stats/ from the documents at most once a day, across all clients
+        StatsReconciler.runIfDue();
 
         btnProfileMenu.setOnClickListener(this::showPopupMenu);
+        findViewById(R.id.btnBulkApprove).setOnClickListener(v -> showBulkAction("Approved"));
+        findViewById(R.id.btnBulkReject).setOnClickListener(v -> showBulkAction("Rejected"));
+        findViewById(R.id.btnBulkClear).setOnClickListener(v -> adapter.clearSelection());
         chipGroupFilter.setOnCheckedChangeListener((group, checkedId) -> applyFilters());
         etSearch.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -71,19 +133,21 @@ public class AdminDashboardActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        requestFilter.shutdown();
+    }
+
     private void showPopupMenu(View anchor) {
         PopupMenu popup = new PopupMenu(this, anchor);
         popup.getMenuInflater().inflate(R.menu.nav_menu, popup.getMenu());
 
         String userId = FirebaseAuth.getInstance().getUid();
         if (userId != null) {
-            DatabaseReference userRef = FirebaseDatabase.getInstance()
-                    .getReference("users")
-                    .child(userId);
-
-            userRef.get().addOnSuccessListener(snapshot -> {
-                if (snapshot.exists()) {
-                    String name = snapshot.child("name").getValue(String.class);
+            UserDirectory.getInstance().get(userId, (profile, error) -> {
+                if (profile != null) {
+                    String name = profile.getName();
                     if (name != null && !name.isEmpty()) {
 
                         SpannableString styledTitle = new SpannableString(name);
@@ -92,6 +156,9 @@ public class AdminDashboardActivity extends AppCompatActivity {
 
                         popup.getMenu().findItem(R.id.nav_header).setTitle(styledTitle);
                     }
+                    // 📊 Turnaround analytics for HOD and registrar only
+                    popup.getMenu().findItem(R.id.nav_analytics)
+                            .setVisible(AnalyticsActivity.canView(profile.getPrimaryRole()));
                 }
             });
         }
@@ -101,7 +168,12 @@ public class AdminDashboardActivity extends AppCompatActivity {
             if (id == R.id.nav_profile) {
                 startActivity(new Intent(this, ProfileActivity.class));
                 return true;
+            } else if (id == R.id.nav_analytics) {
+                startActivity(new Intent(this, AnalyticsActivity.class));
+                return true;
             } else if (id == R.id.nav_logout) {
+                DashboardCache.getInstance(this).clear();
+                UserDirectory.getInstance().clear();
                 FirebaseAuth.getInstance().signOut();
 
                 getSharedPreferences("DTSLoginPrefs", MODE_PRIVATE)
@@ -125,98 +197,143 @@ public class AdminDashboardActivity extends AppCompatActivity {
         String currentEmail = (mAuth.getCurrentUser() != null)
                 ? mAuth.getCurrentUser().getEmail().trim().toLowerCase()
                 : null;
-        if (currentEmail == null) return;
+        if (currentEmail == null || inboxPager != null) return;
 
-        dbRef.child("documents").addValueEventListener(new ValueEventListener() {
+        // Only this approver's inbox is downloaded, a page at a time; each listed document is then watched individually
+        DatabaseReference inbox = dbRef.child(DbKeys.APPROVER_INBOX).child(DbKeys.emailKey(currentEmail));
+        inboxPager = new InboxPager(inbox, subscriptions, new InboxPager.Listener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                docList.clear();
+            public void onEntryAdded(String docId) {
+                if (!docListeners.containsKey(docId)) {
+                    docListeners.put(docId, listenDocument(docId, currentEmail));
+                }
+            }
 
-                for (DataSnapshot docSnap : snapshot.getChildren()) {
-                    String id = docSnap.getKey();
-                    String name = docSnap.child("documentType").getValue(String.class);
-                    String globalStatus = docSnap.child("status").getValue(String.class);
-                    Long indexLong = docSnap.child("currentApproverIndex").getValue(Long.class);
-                    int index = indexLong != null ? indexLong.intValue() : 0;
+            @Override
+            public void onEntryRemoved(String docId, boolean released) {
+                SubscriptionRegistry.Subscription subscription = docListeners.remove(docId);
+                if (subscription != null) subscription.remove();
+                if (!released) {
+                    onDocumentChanged(docId, null);
+                    return;
+                }
+                // Scrolled far away: free the row, but keep it in the on-disk cache
+                for (Map<String, RequestModel> waiting : awaitingStudent.values()) waiting.remove(docId);
+                liveIds.remove(docId);
+                requestFilter.remove(docId);
+            }
 
-                    if (name == null || globalStatus == null) continue;
+            @Override
+            public void onPageLoaded(String afterKey, String lastKey, TreeSet<String> keys) {
+                dropStaleCachedRows(afterKey, lastKey, keys);
+                // A page with no matches doesn't change the filtered list, so nothing else asks for the next one
+                if (isFiltering()) recyclerRequests.post(AdminDashboardActivity.this::checkInboxPages);
+            }
+        });
+        inboxPager.start();
+        showLegacyDocuments(currentEmail);
+    }
 
-                    List<String> chain = new ArrayList<>();
-                    for (DataSnapshot c : docSnap.child("approverChain").getChildren()) {
-                        String val = c.getValue(String.class);
-                        if (val != null) chain.add(val.trim().toLowerCase());
-                    }
-                    if (chain.isEmpty()) continue;
-
-                    boolean isMyTurn = (index < chain.size()) && currentEmail.equals(chain.get(index));
-
-                    long lastResubmissionTime = 0L;
-                    DataSnapshot remarksAll = docSnap.child("remarks");
-                    if (remarksAll.exists()) {
-                        for (DataSnapshot remark : remarksAll.getChildren()) {
-                            String key = remark.getKey();
-                            if (key != null && key.startsWith("system_")) {
-                                String status = remark.child("status").getValue(String.class);
-                                if ("Resubmitted".equalsIgnoreCase(status)) {
-                                    Long time = remark.child("time").getValue(Long.class);
-                                    if (time != null && time > lastResubmissionTime)
-                                        lastResubmissionTime = time;
-                                }
-                            }
-                        }
-                    }
+    /**
+     * Documents from before approverInbox existed have no inbox entries until RemarksMigrator
+     * reaches them (it writes them along with the state node). Until the migration is done,
+     * the documents without a state node are read once the old way, so they still show.
+     */
+    private void showLegacyDocuments(String currentEmail) {
+        dbRef.child(RemarksMigrator.CHECKPOINT).child("done").get().addOnCompleteListener(done -> {
+            if (done.isSuccessful() && Boolean.TRUE.equals(done.getResult().getValue(Boolean.class))) return;
+            dbRef.child(DbKeys.DOCUMENTS).get().addOnSuccessListener(docsSnap -> {
+                for (DataSnapshot docSnap : docsSnap.getChildren()) {
+                    String docId = docSnap.getKey();
+                    if (docSnap.child(ApprovalTransition.STATE).exists() || docListeners.containsKey(docId)) continue;
+                    RequestModel model = evaluateForMe(docSnap, currentEmail);
+                    if (model != null) onDocumentChanged(docId, model);
+                }
+            });
+        });
+    }
 
-                    boolean iHaveActed = false;
-                    String myStatus = globalStatus;
-
-                    DataSnapshot remarksSnap = docSnap.child("remarks");
-                    if (remarksSnap.exists()) {
-                        String normalizedEmailKey = currentEmail.replace("@", "_")
-                                .replace(".", "_").toLowerCase();
-                        for (DataSnapshot roleSnap : remarksSnap.getChildren()) {
-                            String roleKey = roleSnap.getKey();
-                            if (roleKey == null) continue;
-                            if (roleKey.contains(normalizedEmailKey)) {
-                                for (DataSnapshot timeSnap : roleSnap.getChildren()) {
-                                    String remarkStatus = timeSnap.child("status").getValue(String.class);
-                                    Long remarkTime = timeSnap.child("time").getValue(Long.class);
-                                    if (remarkStatus == null) continue;
-
-                                    if (remarkTime == null || remarkTime <= lastResubmissionTime) continue;
-
-                                    if (remarkStatus.equalsIgnoreCase("Approved") ||
-                                            remarkStatus.equalsIgnoreCase("Rejected")) {
-                                        iHaveActed = true;
-                                        myStatus = remarkStatus;
-                                    }
-                                }
-                            }
-                        }
-                    }
+    /** 🔢 Chip counts from stats/approvers/{myKey}, kept at write time; no document is read for them. */
+    private void listenChipCounts() {
+        String currentEmail = mAuth.getCurrentUser() != null ? mAuth.getCurrentUser().getEmail() : null;
+        if (currentEmail == null) return;
 
-                    int myPosition = chain.indexOf(currentEmail);
+        Query counts = dbRef.child(DbKeys.STATS).child("approvers").child(DbKeys.emailKey(currentEmail));
+        subscriptions.addValueListener("stats/approvers", counts, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                long pending = count(snapshot, StatusCounters.PENDING);
+                long approved = count(snapshot, StatusCounters.APPROVED);
+                long rejected = count(snapshot, StatusCounters.REJECTED);
+                ((Chip) findViewById(R.id.chipAll)).setText("All (" + (pending + approved + rejected) + ")");
+                ((Chip) findViewById(R.id.chipPending)).setText("Pending (" + pending + ")");
+                ((Chip) findViewById(R.id.chipApproved)).setText("Approved (" + approved + ")");
+                ((Chip) findViewById(R.id.chipRejected)).setText("Rejected (" + rejected + ")");
+            }
 
-                    if (myPosition > index && !iHaveActed) continue;
-                    if (!(isMyTurn || iHaveActed)) continue;
-                    if (!iHaveActed && myPosition != index) continue;
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        });
+    }
 
-                    boolean isGloballyRejected = "Rejected".equalsIgnoreCase(globalStatus);
-                    if (isGloballyRejected && !iHaveActed)
-                        continue;
+    /** A counter that drifted below zero shows as 0 until StatsReconciler repairs it. */
+    static long count(DataSnapshot counters, String bucket) {
+        Long value = counters.child(bucket).getValue(Long.class);
+        return value != null ? Math.max(0, value) : 0;
+    }
 
-                    String displayStatus;
-                    if (iHaveActed) {
-                        displayStatus = myStatus + " (You)";
-                    } else if (isMyTurn && "Pending".equalsIgnoreCase(globalStatus)) {
-                        displayStatus = "Pending (Your Turn)";
-                    } else {
-                        displayStatus = globalStatus;
-                    }
+    /**
+     * Prefetches the next inbox page near the end of the list, and releases pages far from the viewport.
+     * A search or chip filter that leaves fewer rows than fit on screen keeps paging until the
+     * matches fill the screen or the inbox ends, with tvFilterPaging saying so meanwhile.
+     */
+    private void checkInboxPages() {
+        if (inboxPager == null) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerRequests.getLayoutManager();
+        if (layoutManager == null) return;
+        List<RequestModel> rows = adapter.getCurrentList();
+        int first = rows.isEmpty() ? 0 : layoutManager.findFirstVisibleItemPosition();
+        int last = rows.isEmpty() ? -1 : layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        if (first == 0 && last == rows.size() - 1) {
+            // Every row is on screen: older pages may hold more matches, so keep going
+            inboxPager.onViewport(null, null);
+            tvFilterPaging.setVisibility(isFiltering() && !inboxPager.reachedEnds() ? View.VISIBLE : View.GONE);
+            return;
+        }
+        tvFilterPaging.setVisibility(View.GONE);
+        inboxPager.onViewport(rows.get(first).getId(), rows.get(last).getId());
+    }
 
-                    docList.add(new RequestModel(id, name, displayStatus));
-                }
+    private boolean isFiltering() {
+        String searchText = etSearch.getText() != null ? etSearch.getText().toString().trim() : "";
+        return !searchText.isEmpty() || !"All".equals(getSelectedStatus(chipGroupFilter.getCheckedChipId()));
+    }
+
+    /** One dialog (and one remark) for every selected request; see AdminActionDialog's bulk mode. */
+    private void showBulkAction(String action) {
+        Map<String, RequestModel> rows = new LinkedHashMap<>();
+        Set<String> selected = new HashSet<>(adapter.getSelectedIds());
+        for (RequestModel row : adapter.getCurrentList()) {
+            if (selected.contains(row.getId())) rows.put(row.getId(), row);
+        }
+        if (rows.isEmpty()) return;
+        new AdminActionDialog(rows, action).show(getSupportFragmentManager(), "AdminActionDialog");
+    }
 
-                applyFilters();
+    /** Called by the bulk dialog once its write has finished, whatever the per-request outcome. */
+    void onBulkActionFinished() {
+        adapter.clearSelection();
+    }
+
+    private SubscriptionRegistry.Subscription listenDocument(String docId, String currentEmail) {
+        Query doc = dbRef.child(DbKeys.DOCUMENTS).child(docId);
+        return subscriptions.addValueListener("documents/" + docId, doc, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot docSnap) {
+                // Visibility rules run for this one document only
+                onDocumentChanged(docId, docSnap.exists() ? evaluateForMe(docSnap, currentEmail) : null);
             }
 
             @Override
@@ -224,26 +341,116 @@ public class AdminDashboardActivity extends AppCompatActivity {
         });
     }
 
-    private void applyFilters() {
-        if (docList.isEmpty()) return;
-
-        filteredList.clear();
-        String searchText = etSearch.getText() != null
-                ? etSearch.getText().toString().trim().toLowerCase()
-                : "";
-        String statusFilter = getSelectedStatus(chipGroupFilter.getCheckedChipId());
-
-        for (RequestModel doc : docList) {
-            boolean matchesStatus = statusFilter.equals("All")
-                    || doc.getStatus().equalsIgnoreCase(statusFilter)
-                    || doc.getStatus().toLowerCase().contains(statusFilter.toLowerCase());
-            boolean matchesSearch = searchText.isEmpty()
-                    || doc.getName().toLowerCase().contains(searchText);
-
-            if (matchesStatus && matchesSearch) filteredList.add(doc);
+    /** Applies the approver visibility rules (core VisibilityRules) to one document; null if hidden. */
+    private RequestModel evaluateForMe(DataSnapshot docSnap, String currentEmail) {
+        if (visibilityRules == null || !visibilityRules.getApproverEmail().equals(currentEmail)) {
+            visibilityRules = new VisibilityRules(currentEmail);
+        }
+        ApproverView view = visibilityRules.evaluate(DocumentDecoder.decode(docSnap.getKey(), docSnap.getValue()));
+        if (view == null) return null;
+
+        RequestModel model = new RequestModel(view.getDocId(), view.getDocumentType(),
+                view.getDisplayStatus(), "", view.getCreatedAt(), view.isCanAct());
+        model.setMyTurn(view.isMyTurn());
+        model.setStudentId(view.getStudentId());
+        model.setApproverStatus(view.getApproverStatus());
+        model.setChainVersion(view.getChainVersion());
+        model.setApproverIndex(view.getApproverIndex());
+        return model;
+    }
+
+    /** Holds a row back until its student's profile is known, so rows never bind half-filled. */
+    private void onDocumentChanged(String docId, RequestModel model) {
+        for (Map<String, RequestModel> waiting : awaitingStudent.values()) waiting.remove(docId);
+
+        String studentId = model != null ? model.getStudentId() : null;
+        if (studentId != null && !UserDirectory.getInstance().isCached(studentId)) {
+            Map<String, RequestModel> waiting = awaitingStudent.get(studentId);
+            if (waiting == null) {
+                waiting = new HashMap<>();
+                awaitingStudent.put(studentId, waiting);
+            }
+            waiting.put(docId, model);
+            if (!resolveScheduled) {
+                // Batch every uid that arrives in this burst of callbacks into one directory lookup
+                resolveScheduled = true;
+                recyclerRequests.post(this::resolvePendingStudents);
+            }
+            return;
         }
 
-        adapter.notifyDataSetChanged();
+        if (model != null && studentId != null) {
+            UserDirectory.UserProfile student = UserDirectory.getInstance().peek(studentId);
+            model.setStudentName(student != null ? student.getName() : null);
+            model.setStudentUserId(student != null ? student.getUserId() : null);
+        }
+        showRow(docId, model);
+    }
+
+    private void resolvePendingStudents() {
+        resolveScheduled = false;
+        UserDirectory.getInstance().getAll(new ArrayList<>(awaitingStudent.keySet()), profiles -> {
+            for (String uid : profiles.keySet()) {
+                Map<String, RequestModel> waiting = awaitingStudent.remove(uid);
+                if (waiting == null) continue;
+                for (Map.Entry<String, RequestModel> e : waiting.entrySet()) {
+                    showStudentRow(e.getKey(), e.getValue(), profiles.get(uid));
+                }
+            }
+        });
+    }
+
+    private void showStudentRow(String docId, RequestModel model, UserDirectory.UserProfile student) {
+        model.setStudentName(student != null ? student.getName() : null);
+        model.setStudentUserId(student != null ? student.getUserId() : null);
+        showRow(docId, model);
+    }
+
+    /** Applies one document's new row (or null when hidden); the adapter diffs out the single-row change. */
+    private void showRow(String docId, RequestModel model) {
+        liveIds.add(docId);
+        cachedIds.remove(docId);
+        if (model != null) requestFilter.upsert(model);
+        else requestFilter.remove(docId);
+
+        if (cacheOwner == null) return;
+        if (model != null) cache.putRow(cacheOwner, DashboardCache.SCREEN_ADMIN, docId, model);
+        else cache.removeRow(cacheOwner, DashboardCache.SCREEN_ADMIN, docId);
+    }
+
+    /** ⚡ Last session's rows straight from disk; server callbacks replace them as they arrive. */
+    private void showCachedRows() {
+        cache = DashboardCache.getInstance(this);
+        cacheOwner = mAuth.getUid();
+        if (cacheOwner == null) return;
+
+        cache.loadRows(cacheOwner, DashboardCache.SCREEN_ADMIN, rows -> {
+            for (RequestModel row : rows) {
+                String docId = row.getId();
+                // The server already answered for this one, or its inbox page has loaded without it
+                if (liveIds.contains(docId)) continue;
+                if (inboxPager != null && inboxPager.covers(docId) && !inboxPager.contains(docId)) continue;
+                cachedIds.add(docId);
+                requestFilter.upsert(row);
+            }
+        });
+    }
+
+    /** Once an inbox page has loaded, cached rows in its key range that it doesn't hold are dropped. */
+    private void dropStaleCachedRows(String afterKey, String lastKey, Set<String> keys) {
+        for (String docId : new ArrayList<>(cachedIds)) {
+            boolean inRange = (afterKey == null || docId.compareTo(afterKey) > 0)
+                    && (lastKey == null || docId.compareTo(lastKey) <= 0);
+            if (!inRange || keys.contains(docId)) continue;
+            cachedIds.remove(docId);
+            requestFilter.remove(docId);
+            if (cacheOwner != null) cache.removeRow(cacheOwner, DashboardCache.SCREEN_ADMIN, docId);
+        }
+    }
+
+    private void applyFilters() {
+        String searchText = etSearch.getText() != null ? etSearch.getText().toString() : "";
+        requestFilter.setQuery(searchText, getSelectedStatus(chipGroupFilter.getCheckedChipId()));
     }
 
     private String getSelectedStatus(int chipId) {
@@ -252,10 +459,4 @@ public class AdminDashboardActivity extends AppCompatActivity {
         if (chipId == R.id.chipRejected) return "Rejected";
         return "All";
     }
-
-    public void refreshDocuments() {
-        docList.clear();
-        adapter.notifyDataSetChanged();
-        listenDocumentsForMe();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.example.dts;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+
+import com.example.dts.core.StageAnalytics;
+import com.example.dts.core.StageHistogram;
+import com.example.dts.core.StatusCounters;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turnaround screen for HOD and registrar: queue length, median / p95 time in stage per
+ * approver and per document type, and daily throughput. Everything comes from the analytics/
+ * and stats/ counters kept at write time (StageAnalytics, StatusCounters), so opening it reads
+ * a few small nodes and never walks documents or remarks.
+ */
+public class AnalyticsActivity extends AppCompatActivity {
+
+    private static final int DAYS_SHOWN = 14;
+
+    private LinearLayout sectionQueue, sectionApprovers, sectionTypes, sectionDaily;
+    private SubscriptionRegistry subscriptions;
+
+    // Last snapshots of the two nodes the queue card combines
+    private DataSnapshot approverCounts;
+    private DataSnapshot typeQueues;
+
+    /** Roles that see this screen (users/{uid}/primaryRole). */
+    static boolean canView(String role) {
+        if (role == null) return false;
+        String r = role.trim().toLowerCase();
+        return r.equals("hod") || r.contains("registrar");
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setTheme(R.style.Theme_DTS);
+        setContentView(R.layout.activity_analytics);
+
+        sectionQueue = findViewById(R.id.sectionQueue);
+        sectionApprovers = findViewById(R.id.sectionApprovers);
+        sectionTypes = findViewById(R.id.sectionTypes);
+        sectionDaily = findViewById(R.id.sectionDaily);
+        findViewById(R.id.btnBack).setOnClickListener(v -> finish());
+
+        subscriptions = SubscriptionRegistry.attach(this, "Analytics");
+        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference();
+        DatabaseReference analytics = dbRef.child(DbKeys.ANALYTICS);
+
+        subscriptions.addValueListener("analytics/stage", analytics.child("stage"), listener(snapshot -> {
+            showStages(sectionApprovers, snapshot.child("approvers"), true);
+            showStages(sectionTypes, snapshot.child("types"), false);
+        }));
+        subscriptions.addValueListener("stats/approvers", dbRef.child(DbKeys.STATS).child("approvers"),
+                listener(snapshot -> {
+                    approverCounts = snapshot;
+                    showQueue();
+                }));
+        subscriptions.addValueListener("analytics/queue", analytics.child("queue"), listener(snapshot -> {
+            typeQueues = snapshot;
+            showQueue();
+        }));
+
+        long firstDay = StageAnalytics.dayOf(System.currentTimeMillis()) - (DAYS_SHOWN - 1);
+        subscriptions.addValueListener("analytics/daily",
+                analytics.child("daily").orderByKey().startAt(String.valueOf(firstDay)),
+                listener(this::showDaily));
+    }
+
+    private interface SnapshotHandler {
+        void onSnapshot(DataSnapshot snapshot);
+    }
+
+    private static ValueEventListener listener(SnapshotHandler handler) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                handler.onSnapshot(snapshot);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        };
+    }
+
+    // ---------------------------------------------------------------- cards
+
+    /** One row per approver (or type), slowest p95 first. */
+    private void showStages(LinearLayout section, DataSnapshot groups, boolean approvers) {
+        clear(section);
+        List<String> names = new ArrayList<>();
+        Map<String, StageHistogram> histograms = new HashMap<>();
+        for (DataSnapshot group : groups.getChildren()) {
+            Map<String, Long> buckets = new HashMap<>();
+            for (DataSnapshot bucket : group.getChildren()) buckets.put(bucket.getKey(), bucket.getValue(Long.class));
+            StageHistogram histogram = StageHistogram.of(buckets);
+            if (histogram.getCount() == 0) continue;
+            String name = approvers ? RoleNames.readable(group.getKey()) : group.getKey();
+            names.add(name);
+            histograms.put(name, histogram);
+        }
+        names.sort((a, b) -> Long.compare(histograms.get(b).p95Ms(), histograms.get(a).p95Ms()));
+
+        if (names.isEmpty()) {
+            addNote(section, "No decisions yet.");
+            return;
+        }
+        addRow(section, true, approvers ? "Approver" : "Type", "Median", "p95", "Steps");
+        for (String name : names) {
+            StageHistogram h = histograms.get(name);
+            addRow(section, false, name, formatDuration(h.medianMs()), formatDuration(h.p95Ms()),
+                    String.valueOf(h.getCount()));
+        }
+    }
+
+    private void showQueue() {
+        clear(sectionQueue);
+        boolean any = false;
+        if (approverCounts != null) {
+            addRow(sectionQueue, true, "Approver", "Pending", "", "");
+            for (DataSnapshot approver : approverCounts.getChildren()) {
+                long pending = AdminDashboardActivity.count(approver, StatusCounters.PENDING);
+                if (pending == 0) continue;
+                addRow(sectionQueue, false, RoleNames.readable(approver.getKey()), String.valueOf(pending), "", "");
+                any = true;
+            }
+        }
+        if (typeQueues != null) {
+            addRow(sectionQueue, true, "Document type", "In progress", "", "");
+            for (DataSnapshot type : typeQueues.getChildren()) {
+                Long inProgress = type.getValue(Long.class);
+                if (inProgress == null || inProgress <= 0) continue;
+                addRow(sectionQueue, false, type.getKey(), String.valueOf(inProgress), "", "");
+                any = true;
+            }
+        }
+        if (!any) addNote(sectionQueue, "Nothing is waiting.");
+    }
+
+    /** Newest day first; days without any activity are skipped. */
+    private void showDaily(DataSnapshot days) {
+        clear(sectionDaily);
+        List<DataSnapshot> rows = new ArrayList<>();
+        for (DataSnapshot day : days.getChildren()) rows.add(0, day);
+        if (rows.isEmpty()) {
+            addNote(sectionDaily, "No activity in the last " + DAYS_SHOWN + " days.");
+            return;
+        }
+        addRow(sectionDaily, true, "Day", "In", "Approved", "Rejected");
+        for (DataSnapshot day : rows) {
+            long epochDay;
+            try {
+                epochDay = Long.parseLong(day.getKey());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String date = android.text.format.DateFormat
+                    .format("dd MMM", StageAnalytics.startOfDay(epochDay)).toString();
+            long in = value(day, "Submitted") + value(day, "Resubmitted");
+            addRow(sectionDaily, false, date, String.valueOf(in), String.valueOf(value(day, "Approved")),
+                    String.valueOf(value(day, "Rejected")));
+        }
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static long value(DataSnapshot parent, String child) {
+        Long value = parent.child(child).getValue(Long.class);
+        return value != null ? value : 0;
+    }
+
+    /** "45m", "3h 20m", "2.5d". */
+    static String formatDuration(long ms) {
+        long minutes = ms / 60_000;
+        if (minutes < 60) return minutes + "m";
+        long hours = minutes / 60;
+        if (hours < 24) return hours + "h " + (minutes % 60) + "m";
+        return String.format(java.util.Locale.US, "%.1fd", ms / 86_400_000.0);
+    }
+
+    /** Keeps the card's title and subtitle, drops the rows. */
+    private static void clear(LinearLayout section) {
+        if (section.getChildCount() > 2) section.removeViews(2, section.getChildCount() - 2);
+    }
+
+    private void addNote(LinearLayout section, String text) {
+        TextView note = new TextView(this);
+        note.setText(text);
+        note.setTextColor(ContextCompat.getColor(this, R.color.gray_600));
+        note.setTextSize(14);
+        section.addView(note);
+    }
+
+    /** First column takes the spare width; empty cells keep the columns aligned. */
+    private void addRow(LinearLayout section, boolean header, String... cells) {
+        LinearLayout row = new LinearLayout(this);
+        row.setOrientation(LinearLayout.HORIZONTAL);
+        row.setPadding(0, header ? 8 : 4, 0, 4);
+        for (int i = 0; i < cells.length; i++) {
+            TextView cell = new TextView(this);
+            cell.setText(cells[i]);
+            cell.setTextSize(14);
+            cell.setTextColor(ContextCompat.getColor(this, header ? R.color.gray_600 : R.color.gray_900));
+            if (header) cell.setTypeface(null, Typeface.BOLD);
+            cell.setLayoutParams(new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT,
+                    i == 0 ? 2f : 1f));
+            if (i > 0) cell.setTextAlignment(View.TEXT_ALIGNMENT_VIEW_END);
+            row.addView(cell);
+        }
+        section.addView(row);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.dts;
+
+import com.example.dts.core.ApprovalState;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compare-and-set approval step on documents/{docId}/state ({index, status, chainVersion});
+ * the rules themselves are ApprovalState.apply, shared with the in-memory repository.
+ * A decision is planned against the document as read, and the new state goes out in the same
+ * multi-path write as the remark, the mirrored top-level fields, the summary, the inbox
+ * hand-over and the counters. The .validate rule on state refuses that write if the state
+ * moved after the read (another decision, or a resubmit bumping chainVersion), so a decision
+ * is written whole or not at all; a refused write is read and planned again, up to MAX_ATTEMPTS.
+ */
+final class ApprovalTransition {
+
+    static final String STATE = "state";
+    /** Server time of the last write to state; StatsReconciler finds documents that moved mid-scan by it. */
+    static final String WRITTEN_AT = "writtenAt";
+    /** Reads and plans of one flush before a write the state rule keeps refusing is given up. */
+    static final int MAX_ATTEMPTS = 5;
+
+    private static final AtomicLong retries = new AtomicLong();
+    private static final AtomicLong conflicts = new AtomicLong();
+
+    private ApprovalTransition() { }
+
+    /** Flush writes re-planned after the first attempt (each one means a document had moved since the read). */
+    static long getRetryCount() { return retries.get(); }
+    /** Decisions refused because the state no longer allowed this approver to act. */
+    static long getConflictCount() { return conflicts.get(); }
+
+    static void countRetry() {
+        retries.incrementAndGet();
+    }
+
+    static void countConflicts(int refused) {
+        conflicts.addAndGet(refused);
+    }
+
+    /** State for a brand new document; resubmits reset index/status and bump chainVersion instead. */
+    static Map<String, Object> initialState() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("index", 0);
+        state.put("status", "Pending");
+        state.put("chainVersion", 0);
+        state.put(WRITTEN_AT, ServerValue.TIMESTAMP);
+        return state;
+    }
+
+    /** documents/{id}/state; documents from before the state node use their top-level fields. */
+    static ApprovalState stateOf(DataSnapshot docSnap) {
+        DataSnapshot stateSnap = docSnap.child(STATE);
+        DataSnapshot source = stateSnap.exists() ? stateSnap : docSnap;
+        Long index = source.child(stateSnap.exists() ? "index" : "currentApproverIndex").getValue(Long.class);
+        Long version = stateSnap.child("chainVersion").getValue(Long.class);
+        return new ApprovalState(index != null ? index.intValue() : 0,
+                source.child("status").getValue(String.class), version != null ? version : 0L);
+    }
+
+    static List<String> chainOf(DataSnapshot docSnap) {
+        List<String> chain = new ArrayList<>();
+        for (DataSnapshot a : docSnap.child("approverChain").getChildren()) {
+            String value = a.getValue(String.class);
+            if (value != null) chain.add(value);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.dts;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device copy of the parsed dashboard rows and the flow catalog, so a cold start can show
+ * the last known list before Firebase answers. Rows are kept per signed-in user and screen;
+ * the catalog (flows, role names and the flowsVersion they were read at) is shared.
+ *
+ * It's only a cache: a schema change drops and rebuilds it, rows not refreshed for
+ * MAX_AGE_MS are evicted, and the table is trimmed to MAX_ROWS (oldest first). The catalog
+ * doesn't age out: FlowCatalog replaces it when flowsVersion moves.
+ * All disk work happens on one background thread; results come back on the main thread.
+ */
+final class DashboardCache extends SQLiteOpenHelper {
+
+    static final String SCREEN_ADMIN = "admin";
+    static final String SCREEN_STUDENT = "student";
+
+    interface RowsCallback {
+        void onLoaded(List<RequestModel> rows);
+    }
+
+    interface CatalogCallback {
+        /**
+         * version: flowsVersion the catalog was read at, -1 if none is cached.
+         * flows: flow name -> approver chain, in catalog order. roleNames: email key -> display name.
+         */
+        void onLoaded(long version, Map<String, List<String>> flows, Map<String, String> roleNames);
+    }
+
+    private static final String DB_NAME = "dashboard_cache.db";
+    private static final int DB_VERSION = 3;
+
+    private static final int MAX_ROWS = 1000;
+    private static final long MAX_AGE_MS = 14L * 24 * 60 * 60 * 1000;
+
+    private static DashboardCache instance;
+
+    private final ExecutorService disk = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    static synchronized DashboardCache getInstance(Context context) {
+        if (instance == null) instance = new DashboardCache(context.getApplicationContext());
+        return instance;
+    }
+
+    private DashboardCache(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE rows ("
+                + "owner TEXT NOT NULL, screen TEXT NOT NULL, row_key TEXT NOT NULL,"
+                + "position INTEGER NOT NULL, id TEXT, name TEXT, status TEXT,"
+                + "student_name TEXT, student_id TEXT, student_user_id TEXT, approver_status TEXT,"
+                + "created_at INTEGER NOT NULL, can_act INTEGER NOT NULL, my_turn INTEGER NOT NULL,"
+                + "chain_version INTEGER NOT NULL, approver_index INTEGER NOT NULL,"
+                + "cached_at INTEGER NOT NULL,"
+                + "PRIMARY KEY (owner, screen, row_key))");
+        db.execSQL("CREATE INDEX rows_cached_at ON rows (cached_at)");
+        db.execSQL("CREATE TABLE flows ("
+                + "name TEXT PRIMARY KEY, position INTEGER NOT NULL, chain TEXT NOT NULL,"
+                + "cached_at INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE role_names (email_key TEXT PRIMARY KEY, name TEXT NOT NULL)");
+        db.execSQL("CREATE TABLE catalog_version (id INTEGER PRIMARY KEY CHECK (id = 0), version INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        rebuild(db);
+    }
+
+    @Override
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        rebuild(db);
+    }
+
+    private void rebuild(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS rows");
+        db.execSQL("DROP TABLE IF EXISTS flows");
+        db.execSQL("DROP TABLE IF EXISTS role_names");
+        db.execSQL("DROP TABLE IF EXISTS catalog_version");
+        onCreate(db);
+    }
+
+    // ---------------------------------------------------------------- rows
+
+    void loadRows(String owner, String screen, RowsCallback callback) {
+        disk.execute(() -> {
+            List<RequestModel> rows = new ArrayList<>();
+            long freshAfter = System.currentTimeMillis() - MAX_AGE_MS;
+            try (Cursor c = getReadableDatabase().query("rows", null,
+                    "owner = ? AND screen = ? AND cached_at >= ?",
+                    new String[]{owner, screen, String.valueOf(freshAfter)},
+                    null, null, "position, row_key")) {
+                while (c.moveToNext()) rows.add(readRow(c));
+            } catch (RuntimeException e) {
+                // A broken cache just means a cold start
+            }
+            mainHandler.post(() -> callback.onLoaded(rows));
+        });
+    }
+
+    void putRow(String owner, String screen, String rowKey, RequestModel row) {
+        disk.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.insertWithOnConflict("rows", null, rowValues(owner, screen, rowKey, 0, row),
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            evict(db);
+        });
+    }
+
+    void removeRow(String owner, String screen, String rowKey) {
+        disk.execute(() -> getWritableDatabase().delete("rows",
+                "owner = ? AND screen = ? AND row_key = ?", new String[]{owner, screen, rowKey}));
+    }
+
+    /** Replaces the whole list for owner/screen; rowKeys[i] is the key of rows[i]. */
+    void replaceRows(String owner, String screen, List<String> rowKeys, List<RequestModel> rows) {
+        List<String> keys = new ArrayList<>(rowKeys);
+        List<RequestModel> copy = new ArrayList<>(rows);
+        disk.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete("rows", "owner = ? AND screen = ?", new String[]{owner, screen});
+                for (int i = 0; i < copy.size(); i++) {
+                    db.insertWithOnConflict("rows", null, rowValues(owner, screen, keys.get(i), i, copy.get(i)),
+                            SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                evict(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------- flow catalog
+
+    void loadCatalog(CatalogCallback callback) {
+        disk.execute(() -> {
+            long version = -1;
+            Map<String, List<String>> flows = new LinkedHashMap<>();
+            Map<String, String> roleNames = new HashMap<>();
+            try {
+                SQLiteDatabase db = getReadableDatabase();
+                try (Cursor c = db.query("catalog_version", new String[]{"version"}, null, null, null, null, null)) {
+                    if (c.moveToFirst()) version = c.getLong(0);
+                }
+                try (Cursor c = db.query("flows", new String[]{"name", "chain"}, null, null, null, null, "position")) {
+                    while (c.moveToNext()) {
+                        List<String> chain = new ArrayList<>();
+                        JSONArray array = new JSONArray(c.getString(1));
+                        for (int i = 0; i < array.length(); i++) chain.add(array.getString(i));
+                        flows.put(c.getString(0), chain);
+                    }
+                }
+                try (Cursor c = db.query("role_names", new String[]{"email_key", "name"}, null, null, null, null,
+                        null)) {
+                    while (c.moveToNext()) roleNames.put(c.getString(0), c.getString(1));
+                }
+            } catch (RuntimeException | JSONException e) {
+                // Half a catalog is no catalog: the next sync downloads it again
+                version = -1;
+                flows.clear();
+                roleNames.clear();
+            }
+            long loadedVersion = version;
+            mainHandler.post(() -> callback.onLoaded(loadedVersion, flows, roleNames));
+        });
+    }
+
+    void replaceCatalog(long version, Map<String, List<String>> flows, Map<String, String> roleNames) {
+        Map<String, List<String>> flowsCopy = new LinkedHashMap<>(flows);
+        Map<String, String> namesCopy = new HashMap<>(roleNames);
+        disk.execute(() -> {
+            long now = System.currentTimeMillis();
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete("flows", null, null);
+                int position = 0;
+                for (Map.Entry<String, List<String>> e : flowsCopy.entrySet()) {
+                    ContentValues v = new ContentValues();
+                    v.put("name", e.getKey());
+                    v.put("position", position++);
+                    v.put("chain", new JSONArray(e.getValue()).toString());
+                    v.put("cached_at", now);
+                    db.insert("flows", null, v);
+                }
+                db.delete("role_names", null, null);
+                for (Map.Entry<String, String> e : namesCopy.entrySet()) {
+                    ContentValues v = new ContentValues();
+                    v.put("email_key", e.getKey());
+                    v.put("name", e.getValue());
+                    db.insert("role_names", null, v);
+                }
+                ContentValues v = new ContentValues();
+                v.put("id", 0);
+                v.put("version", version);
+                db.insertWithOnConflict("catalog_version", null, v, SQLiteDatabase.CONFLICT_REPLACE);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    /** Drops every cached row; called on logout so the next user starts clean. The catalog isn't anyone's. */
+    void clear() {
+        disk.execute(() -> getWritableDatabase().delete("rows", null, null));
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static void evict(SQLiteDatabase db) {
+        db.delete("rows", "cached_at < ?",
+                new String[]{String.valueOf(System.currentTimeMillis() - MAX_AGE_MS)});
+        db.execSQL("DELETE FROM rows WHERE rowid IN (SELECT rowid FROM rows ORDER BY cached_at DESC"
+                + " LIMIT -1 OFFSET " + MAX_ROWS + ")");
+    }
+
+    private static ContentValues rowValues(String owner, String screen, String rowKey, int position,
+                                           RequestModel row) {
+        ContentValues v = new ContentValues();
+        v.put("owner", owner);
+        v.put("screen", screen);
+        v.put("row_key", rowKey);
+        v.put("position", position);
+        v.put("id", row.getId());
+        v.put("name", row.getName());
+        v.put("status", row.getStatus());
+        v.put("student_name", row.getStudentName());
+        v.put("student_id", row.getStudentId());
+        v.put("student_user_id", row.getStudentUserId());
+        v.put("approver_status", row.getApproverStatus());
+        v.put("created_at", row.getCreatedAt());
+        v.put("can_act", row.isCanAct() ? 1 : 0);
+        v.put("my_turn", row.isMyTurn() ? 1 : 0);
+        v.put("chain_version", row.getChainVersion());
+        v.put("approver_index", row.getApproverIndex());
+        v.put("cached_at", System.currentTimeMillis());
+        return v;
+    }
+
+    private static RequestModel readRow(Cursor c) {
+        RequestModel row = new RequestModel(
+                c.getString(c.getColumnIndexOrThrow("id")),
+                c.getString(c.getColumnIndexOrThrow("name")),
+                c.getString(c.getColumnIndexOrThrow("status")),
+                c.getString(c.getColumnIndexOrThrow("student_name")),
+                c.getLong(c.getColumnIndexOrThrow("created_at")),
+                c.getInt(c.getColumnIndexOrThrow("can_act")) == 1);
+        row.setMyTurn(c.getInt(c.getColumnIndexOrThrow("my_turn")) == 1);
+        row.setStudentId(c.getString(c.getColumnIndexOrThrow("student_id")));
+        row.setStudentUserId(c.getString(c.getColumnIndexOrThrow("student_user_id")));
+        row.setApproverStatus(c.getString(c.getColumnIndexOrThrow("approver_status")));
+        row.setChainVersion(c.getLong(c.getColumnIndexOrThrow("chain_version")));
+        row.setApproverIndex(c.getInt(c.getColumnIndexOrThrow("approver_index")));
+        return row;
+    }
+}
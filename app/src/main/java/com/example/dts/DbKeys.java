@@ -0,0 +1,58 @@
+package com.example.dts;
+
+import com.example.dts.core.Keys;
+
+/** Shared helpers for building Realtime Database keys and paths. */
+final class DbKeys {
+
+    static final String DOCUMENTS = "documents";
+    static final String APPROVER_INBOX = "approverInbox";
+    static final String DOCUMENT_REMARKS = "documentRemarks";
+    static final String DOCUMENT_REMARKS_ARCHIVE = "documentRemarksArchive";
+    static final String STUDENT_DOCS = "studentDocs";
+    static final String OUTBOX_APPLIED = "outboxApplied";
+    static final String STATS = "stats";
+    static final String ANALYTICS = "analytics";
+
+    private DbKeys() { }
+
+    /** Same normalization used for approvalStatus / remarks keys: "a.b@dts.com" -> "a_b_dts_com". */
+    static String emailKey(String email) {
+        return Keys.emailKey(email);
+    }
+
+    /** approverInbox/{emailKey}/{docId} — one entry per document an approver should see. */
+    static String inboxPath(String approverEmail, String docId) {
+        return APPROVER_INBOX + "/" + emailKey(approverEmail) + "/" + docId;
+    }
+
+    /** Flat remark id under documentRemarks/{docId}: "{approverKey}_{time}" (system remarks use "system_{time}"). */
+    static String remarkKey(String roleKey, Object time) {
+        return roleKey + "_" + time;
+    }
+
+    /** documentRemarks/{docId}/{remarkKey} — flat, time-ordered remark feed for one document. */
+    static String remarkPath(String docId, String remarkKey) {
+        return DOCUMENT_REMARKS + "/" + docId + "/" + remarkKey;
+    }
+
+    /** documentRemarksArchive/{docId}/{cycle}/{remarkKey} — a closed cycle's remarks, read on demand. */
+    static String archivedRemarkPath(String docId, int cycle, String remarkKey) {
+        return DOCUMENT_REMARKS_ARCHIVE + "/" + docId + "/" + cycle + "/" + remarkKey;
+    }
+
+    /** outboxApplied/{actionId} -> time: written with a queued action, so a replay of it is skipped. */
+    static String outboxAppliedPath(String actionId) {
+        return OUTBOX_APPLIED + "/" + actionId;
+    }
+
+    /** stats/{counterPath}: a StatusCounters path, e.g. stats/approvers/{emailKey}/Pending. */
+    static String statPath(String counterPath) {
+        return STATS + "/" + counterPath;
+    }
+
+    /** studentDocs/{uid}/{documentType} -> docId; documentType is a flows/ key, so already a valid key. */
+    static String studentDocPath(String studentId, String documentType) {
+        return STUDENT_DOCS + "/" + studentId + "/" + documentType;
+    }
+}
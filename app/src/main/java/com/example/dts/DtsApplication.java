@@ -0,0 +1,28 @@
+package com.example.dts;
+
+import android.app.Application;
+
+import com.google.firebase.database.FirebaseDatabase;
+
+public class DtsApplication extends Application {
+
+    // Realtime Database disk cache; the SDK default is 10 MB
+    private static final long PERSISTENCE_CACHE_BYTES = 20L * 1024 * 1024;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // ✅ Must run before any other FirebaseDatabase call: listeners then answer from disk
+        //    at once and writes made offline survive a restart
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        database.setPersistenceEnabled(true);
+        database.setPersistenceCacheSizeBytes(PERSISTENCE_CACHE_BYTES);
+
+        // Chains and role names from the last sync, before the outbox's first flush needs them
+        FlowCatalog.getInstance().load(this, null);
+
+        // Sends whatever the last session left queued, and again whenever the network returns
+        Outbox.getInstance(this);
+    }
+}
@@ -0,0 +1,576 @@
+package com.example.dts;
+
+import com.example.dts.core.ApprovalState;
+import com.example.dts.core.DocumentDecoder;
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.DocumentRepository;
+import com.example.dts.core.QueuedAction;
+import com.example.dts.core.RemarkCompaction;
+import com.example.dts.core.RemarkRecord;
+import com.example.dts.core.StageAnalytics;
+import com.example.dts.core.StatusCounters;
+import com.example.dts.core.TransitionResult;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DocumentRepository over the Realtime Database layout described in the README.
+ * Callbacks arrive on the main thread, like every other Firebase listener in the app.
+ */
+final class FirebaseDocumentRepository implements DocumentRepository {
+
+    private final DatabaseReference dbRef;
+
+    FirebaseDocumentRepository(DatabaseReference dbRef) {
+        this.dbRef = dbRef;
+    }
+
+    FirebaseDocumentRepository() {
+        this(FirebaseDatabase.getInstance().getReference());
+    }
+
+    // ---------------------------------------------------------------- submissions
+
+    private static Map<String, RemarkRecord> decodeFeed(DataSnapshot feedSnap) {
+        Map<String, RemarkRecord> feed = new LinkedHashMap<>();
+        if (feedSnap == null) return feed;
+        for (DataSnapshot remarkSnap : feedSnap.getChildren()) {
+            feed.put(remarkSnap.getKey(), DocumentDecoder.decodeRemark(remarkSnap.getValue()));
+        }
+        return feed;
+    }
+
+    /**
+     * The whole submission (or resubmission) as multi-path updates, its counter deltas added to
+     * counters; returns the document id. A resubmission also archives the cycle it closes (feed).
+     */
+    private static String putSubmission(Map<String, Object> updates, Map<String, Long> counters, String studentId,
+                                        String documentType, List<String> approverChain, DocumentRecord existing,
+                                        Map<String, RemarkRecord> feed, String newDocId, long now) {
+        String formattedTime = android.text.format.DateFormat.format("hh:mm a, dd MMM yyyy", now).toString();
+        String docId;
+
+        if (existing != null) {
+            // ✅ Update existing document (Resubmit)
+            docId = existing.getId();
+            addCounters(counters, DbKeys.STATS, StatusCounters.resubmitted(existing, approverChain));
+            addCounters(counters, DbKeys.ANALYTICS, StageAnalytics.submitted(documentType, true, now));
+            updates.put("documents/" + docId + "/status", "Pending");
+            updates.put("documents/" + docId + "/overallStatus", "Pending");
+            updates.put("documents/" + docId + "/currentApproverIndex", 0);
+            updates.put("documents/" + docId + "/updatedAt", now);
+
+            // 🔹 New approval cycle: fresh chain from the flow, and a chainVersion bump so any
+            //    approval still in flight against the old cycle is refused
+            updates.put("documents/" + docId + "/approverChain", approverChain);
+            updates.put("documents/" + docId + "/state/index", 0);
+            updates.put("documents/" + docId + "/state/status", "Pending");
+            updates.put("documents/" + docId + "/state/chainVersion", ServerValue.increment(1));
+            updates.put("documents/" + docId + "/state/" + ApprovalTransition.WRITTEN_AT, ServerValue.TIMESTAMP);
+
+            // 🔹 Reset approval statuses for all approvers
+            for (String email : approverChain) {
+                String approverKey = DbKeys.emailKey(email);
+                updates.put("documents/" + docId + "/approvalStatus/" + approverKey, "Pending");
+            }
+
+            // 🔹 Back to the first approver's inbox; later approvers drop it until it reaches them again
+            for (int i = approverChain.size() - 1; i >= 0; i--) {
+                updates.put(DbKeys.inboxPath(approverChain.get(i), docId), i == 0 ? now : null);
+            }
+
+            // 🔹 The closed cycle moves to the archive; one summary line stays in the feed
+            RemarkCompaction.Plan compaction = feed != null ? RemarkCompaction.plan(feed) : null;
+            if (compaction != null) putCompaction(updates, docId, feed, compaction);
+
+            // ✅ Add resubmission remark (earlier cycles stay readable from the archive)
+            Map<String, Object> remark = new HashMap<>();
+            remark.put("by", RemarkRecord.SYSTEM);
+            remark.put("status", "Resubmitted");
+            remark.put("comment", "Resubmitted on " + formattedTime);
+            remark.put("time", now);
+            updates.put(DbKeys.remarkPath(docId, "system_" + now), remark);
+            updates.put("documents/" + docId + "/summary/lastResubmittedAt", now);
+        } else {
+            // ✅ Create new document for first submission
+            docId = newDocId;
+            addCounters(counters, DbKeys.STATS, StatusCounters.submitted(studentId, approverChain));
+            addCounters(counters, DbKeys.ANALYTICS, StageAnalytics.submitted(documentType, false, now));
+
+            Map<String, Object> docData = new HashMap<>();
+            docData.put("studentId", studentId);
+            docData.put("documentType", documentType);
+            docData.put("status", "Pending");
+            docData.put("overallStatus", "Pending");
+            docData.put("approverChain", approverChain);
+            docData.put("currentApproverIndex", 0);
+            docData.put(ApprovalTransition.STATE, ApprovalTransition.initialState());
+            docData.put("createdAt", now);
+            docData.put("updatedAt", now);
+
+            Map<String, Object> approvalStatus = new HashMap<>();
+            for (String email : approverChain) {
+                approvalStatus.put(DbKeys.emailKey(email), "Pending");
+            }
+            docData.put("approvalStatus", approvalStatus);
+
+            // Approval summary, kept current by every later write
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("lastResubmittedAt", 0L);
+            docData.put("summary", summary);
+
+            updates.put("documents/" + docId, docData);
+            updates.put(DbKeys.inboxPath(approverChain.get(0), docId), now);
+
+            // Remarks go only to the feed; documents/{id} holds the hot metadata
+            Map<String, Object> initial = new HashMap<>();
+            initial.put("by", RemarkRecord.SYSTEM);
+            initial.put("status", "Submitted");
+            initial.put("comment", "Submitted on " + formattedTime);
+            initial.put("time", now);
+            updates.put(DbKeys.remarkPath(docId, "system_" + now), initial);
+        }
+        updates.put(DbKeys.studentDocPath(studentId, documentType), docId);
+        return docId;
+    }
+
+    // ---------------------------------------------------------------- approval transitions
+
+    /**
+     * Checks one document against its state (ApprovalTransition); the write that follows carries
+     * the new state, so the rules refuse it if the document moved after this read.
+     * known, when set, is the state an earlier action in the same write leaves the document in.
+     * expectedChainVersion / expectedIndex are the state the approver acted on (QueuedAction);
+     * UNKNOWN checks against the state as read instead.
+     */
+    private static TransitionResult plan(DataSnapshot docSnap, ApprovalState known, String approverEmail,
+                                         String action, long expectedChainVersion, int expectedIndex) {
+        if (docSnap == null) return TransitionResult.conflict("Could not read this request.");
+        if (!docSnap.exists()) return TransitionResult.conflict("This request no longer exists.");
+        List<String> chain = ApprovalTransition.chainOf(docSnap);
+        if (chain.isEmpty()) return TransitionResult.conflict("Invalid document data");
+        if (known != null) {
+            return known.apply(chain, expectedChainVersion >= 0 ? expectedChainVersion : known.getChainVersion(),
+                    expectedIndex, approverEmail, action);
+        }
+
+        ApprovalState state = ApprovalTransition.stateOf(docSnap);
+        return state.apply(chain, expectedChainVersion >= 0 ? expectedChainVersion : state.getChainVersion(),
+                expectedIndex, approverEmail, action);
+    }
+
+    /**
+     * Everything a committed approve/reject writes: the remark, the state node, the mirrored
+     * top-level fields, the summary and the inbox hand-over. The state node carries chainVersion,
+     * so the rules refuse the whole write if the document moved on (or was resubmitted) after
+     * it was read. Counter deltas go to counters, for the caller to write once per batch with
+     * putCounters; doc is the document as read before the decision (null if it couldn't be
+     * decoded: the stage sample and the student's counters are skipped).
+     */
+    private static void putCommitted(Map<String, Object> updates, Map<String, Long> counters, String docId,
+                                     DocumentRecord doc, List<String> chain, String approverEmail, String action,
+                                     String comment, TransitionResult result, long timestamp) {
+        String adminKey = DbKeys.emailKey(approverEmail);
+        int previousIndex = result.getPreviousIndex();
+        ApprovalState state = result.getState();
+        int newIndex = state.getIndex();
+        String newStatus = state.getStatus();
+        String docPath = "documents/" + docId;
+
+        putRemark(updates, docId, adminKey, action, comment, timestamp);
+
+        updates.put(docPath + "/state/index", newIndex);
+        updates.put(docPath + "/state/status", newStatus);
+        updates.put(docPath + "/state/chainVersion", state.getChainVersion());
+        updates.put(docPath + "/state/" + ApprovalTransition.WRITTEN_AT, ServerValue.TIMESTAMP);
+
+        updates.put(docPath + "/approvalStatus/" + adminKey, action);
+        // Write-time summary so dashboards never scan remarks to find this decision
+        updates.put(docPath + "/summary/actions/" + adminKey + "/status", action);
+        updates.put(docPath + "/summary/actions/" + adminKey + "/time", timestamp);
+
+        // Keep this admin's inbox entry (acted documents stay visible to them)
+        updates.put(DbKeys.inboxPath(approverEmail, docId), timestamp);
+        if (newIndex > previousIndex && newIndex < chain.size()) {
+            // Hand the document over to the next approver's inbox
+            updates.put(DbKeys.inboxPath(chain.get(newIndex), docId), timestamp);
+        }
+
+        // Top-level fields mirror the committed state for the existing readers
+        updates.put(docPath + "/currentApproverIndex", newIndex);
+        updates.put(docPath + "/status", newStatus);
+        updates.put(docPath + "/overallStatus", newStatus);
+        updates.put(docPath + "/updatedAt", timestamp);
+
+        addCounters(counters, DbKeys.STATS, StatusCounters.decided(doc != null ? doc.getStudentId() : null,
+                chain, approverEmail, action, result));
+        if (doc != null) {
+            addCounters(counters, DbKeys.ANALYTICS, StageAnalytics.decided(doc, approverEmail, action, result,
+                    timestamp));
+        }
+    }
+
+    /** Merges deltas relative to root (stats/, analytics/) into counters, keyed by full path. */
+    private static void addCounters(Map<String, Long> counters, String root, Map<String, Long> delta) {
+        Map<String, Long> rooted = new HashMap<>();
+        for (Map.Entry<String, Long> e : delta.entrySet()) rooted.put(root + "/" + e.getKey(), e.getValue());
+        StatusCounters.addAll(counters, rooted);
+    }
+
+    /**
+     * Counter deltas as server-side increments in the same multi-path write as the transition.
+     * One entry per counter path, so a batch merges its deltas (addCounters) first.
+     */
+    private static void putCounters(Map<String, Object> updates, Map<String, Long> counters) {
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            updates.put(e.getKey(), ServerValue.increment(e.getValue()));
+        }
+    }
+
+    // ---------------------------------------------------------------- outbox
+
+    /** Everything a flush needs to know before it can plan its write; filled in by parallel reads. */
+    private static final class FlushReads {
+        final Set<String> applied = new HashSet<>();
+        final Map<String, List<String>> chainsByType = new HashMap<>();
+        /** flowsVersion as read with this flush, when a chain came from the FlowCatalog; else -1. */
+        long flowsVersion = -1;
+        /** The catalog's version when those chains were taken from it. */
+        long catalogVersion = -1;
+        /** Submission action id -> the student's existing document of that type. */
+        final Map<String, String> existingDocIds = new HashMap<>();
+        final Map<String, DataSnapshot> docs = new HashMap<>();
+        /** Existing document id -> its documentRemarks feed, compacted if the submission goes ahead. */
+        final Map<String, DataSnapshot> feeds = new HashMap<>();
+        private final Runnable onDone;
+        private int running = 1; // the issuing loop itself, so nothing completes before every read is out
+        Exception error;
+
+        FlushReads(Runnable onDone) {
+            this.onDone = onDone;
+        }
+
+        void start() {
+            running++;
+        }
+
+        void done() {
+            if (--running == 0) onDone.run();
+        }
+
+        void fail(Exception e) {
+            if (error == null) error = e;
+            done();
+        }
+    }
+
+    @Override
+    public void flush(List<QueuedAction> actions, Callback<Map<String, String>> callback) {
+        flush(actions, 1, callback);
+    }
+
+    /** attempt: 1 for the first read, one more each time the state rule refused the batch write. */
+    private void flush(List<QueuedAction> actions, int attempt, Callback<Map<String, String>> callback) {
+        FlushReads[] holder = new FlushReads[1];
+        FlushReads reads = new FlushReads(() -> writeFlush(actions, holder[0], attempt, callback));
+        holder[0] = reads;
+
+        // 🔹 Every read the batch needs is in flight at once, however many actions are queued
+        FlowCatalog catalog = FlowCatalog.getInstance();
+        Set<String> docsRead = new HashSet<>();
+        Set<String> flowsRead = new HashSet<>();
+        boolean catalogUsed = false;
+        for (QueuedAction action : actions) {
+            reads.start();
+            dbRef.child(DbKeys.outboxAppliedPath(action.getId())).get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful()) {
+                    reads.fail(task.getException());
+                    return;
+                }
+                if (task.getResult().exists()) reads.applied.add(action.getId());
+                reads.done();
+            });
+
+            if (!action.isSubmission()) {
+                if (docsRead.add(action.getDocId())) readDocument(action.getDocId(), reads);
+                continue;
+            }
+            if (flowsRead.add(action.getDocumentType())) {
+                // Cached chains only need flowsVersion to confirm them; a flow the catalog lacks is read
+                List<String> cached = catalog.chainFor(action.getDocumentType());
+                if (cached != null) {
+                    reads.chainsByType.put(action.getDocumentType(), cached);
+                    reads.catalogVersion = catalog.getVersion();
+                    catalogUsed = true;
+                } else {
+                    readFlow(action.getDocumentType(), reads);
+                }
+            }
+            readExistingDocument(action, reads);
+        }
+        if (catalogUsed) readFlowsVersion(reads);
+        reads.done();
+    }
+
+    private void readDocument(String docId, FlushReads reads) {
+        reads.start();
+        dbRef.child(DbKeys.DOCUMENTS).child(docId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                reads.fail(task.getException());
+                return;
+            }
+            reads.docs.put(docId, task.getResult());
+            reads.done();
+        });
+    }
+
+    private void readFeed(String docId, FlushReads reads) {
+        reads.start();
+        dbRef.child(DbKeys.DOCUMENT_REMARKS).child(docId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                reads.fail(task.getException());
+                return;
+            }
+            reads.feeds.put(docId, task.getResult());
+            reads.done();
+        });
+    }
+
+    private void readFlowsVersion(FlushReads reads) {
+        reads.start();
+        dbRef.child(FlowCatalog.FLOWS_VERSION).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                reads.fail(task.getException());
+                return;
+            }
+            reads.flowsVersion = FlowCatalog.versionOf(task.getResult());
+            reads.done();
+        });
+    }
+
+    private void readFlow(String documentType, FlushReads reads) {
+        reads.start();
+        dbRef.child("flows").child(documentType).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                reads.fail(task.getException());
+                return;
+            }
+            List<String> chain = new ArrayList<>();
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                String email = child.getValue(String.class);
+                if (email != null) chain.add(email);
+            }
+            reads.chainsByType.put(documentType, chain);
+            reads.done();
+        });
+    }
+
+    /** studentDocs first, the legacy studentId query only when the index has no entry; then that document. */
+    private void readExistingDocument(QueuedAction action, FlushReads reads) {
+        String studentId = action.getStudentId();
+        String documentType = action.getDocumentType();
+        reads.start();
+        dbRef.child(DbKeys.STUDENT_DOCS).child(studentId).child(documentType).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                reads.fail(task.getException());
+                return;
+            }
+            String indexedDocId = task.getResult().getValue(String.class);
+            if (indexedDocId != null) {
+                reads.existingDocIds.put(action.getId(), indexedDocId);
+                readDocument(indexedDocId, reads);
+                readFeed(indexedDocId, reads);
+                reads.done();
+                return;
+            }
+            dbRef.child(DbKeys.DOCUMENTS).orderByChild("studentId").equalTo(studentId).get()
+                    .addOnCompleteListener(docsTask -> {
+                        if (!docsTask.isSuccessful()) {
+                            reads.fail(docsTask.getException());
+                            return;
+                        }
+                        for (DataSnapshot d : docsTask.getResult().getChildren()) {
+                            if (documentType.equals(d.child("documentType").getValue(String.class))) {
+                                reads.existingDocIds.put(action.getId(), d.getKey());
+                                reads.docs.put(d.getKey(), d);
+                                readFeed(d.getKey(), reads);
+                                break;
+                            }
+                        }
+                        reads.done();
+                    });
+        });
+    }
+
+    /**
+     * Plans every action in queue order against what was read and writes the ones that still
+     * apply, plus their outboxApplied keys, in one updateChildren. Remark keys and timestamps
+     * come from the tap time, so a replayed action writes the very same paths.
+     */
+    private void writeFlush(List<QueuedAction> actions, FlushReads reads, int attempt,
+                            Callback<Map<String, String>> callback) {
+        if (reads.error != null) {
+            callback.onResult(null, reads.error);
+            return;
+        }
+        if (reads.flowsVersion >= 0 && reads.flowsVersion != reads.catalogVersion) {
+            // The cached chains are stale: plan the batch again once the catalog has caught up
+            FlowCatalog catalog = FlowCatalog.getInstance();
+            if (catalog.getVersion() == reads.flowsVersion) {
+                flush(actions, attempt, callback);
+                return;
+            }
+            catalog.download(reads.flowsVersion, (refreshed, error) -> {
+                if (error != null) callback.onResult(null, error);
+                else flush(actions, attempt, callback);
+            });
+            return;
+        }
+
+        Map<String, String> results = new LinkedHashMap<>();
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Long> counters = new HashMap<>();
+        Map<String, ApprovalState> planned = new HashMap<>();
+        int conflicts = 0;
+        for (QueuedAction action : actions) {
+            if (reads.applied.contains(action.getId())) {
+                results.put(action.getId(), null);
+                continue;
+            }
+
+            String refused = null;
+            if (action.isSubmission()) {
+                List<String> chain = reads.chainsByType.get(action.getDocumentType());
+                String existingDocId = reads.existingDocIds.get(action.getId());
+                DataSnapshot existing = existingDocId != null ? reads.docs.get(existingDocId) : null;
+                String status = existing != null ? existing.child("status").getValue(String.class) : null;
+                if (chain == null || chain.isEmpty()) {
+                    refused = "No approver chain found for " + action.getDocumentType();
+                } else if (existing != null && existing.exists() && !"Rejected".equals(status)) {
+                    // A second tap, or another device, already sent it
+                    refused = "This document is already submitted.";
+                } else {
+                    DocumentRecord previous = existing != null && existing.exists()
+                            ? DocumentDecoder.decode(existing.getKey(), existing.getValue()) : null;
+                    Map<String, RemarkRecord> feed = previous != null
+                            ? decodeFeed(reads.feeds.get(previous.getId())) : null;
+                    putSubmission(updates, counters, action.getStudentId(), action.getDocumentType(), chain,
+                            previous, feed, action.getDocId(), action.getTime());
+                }
+            } else if ("Commented".equals(action.getAction())) {
+                DataSnapshot docSnap = reads.docs.get(action.getDocId());
+                if (docSnap == null || !docSnap.exists()) {
+                    refused = "This request no longer exists.";
+                } else {
+                    putComment(updates, action.getDocId(), action.getApproverEmail(), action.getComment(),
+                            action.getTime());
+                }
+            } else {
+                DataSnapshot docSnap = reads.docs.get(action.getDocId());
+                TransitionResult result = plan(docSnap, planned.get(action.getDocId()),
+                        action.getApproverEmail(), action.getAction(), action.getChainVersion(),
+                        action.getApproverIndex());
+                if (result.isCommitted()) {
+                    planned.put(action.getDocId(), result.getState());
+                    putCommitted(updates, counters, action.getDocId(),
+                            DocumentDecoder.decode(action.getDocId(), docSnap.getValue()),
+                            ApprovalTransition.chainOf(docSnap), action.getApproverEmail(), action.getAction(),
+                            action.getComment(), result, action.getTime());
+                } else {
+                    refused = result.getConflictReason();
+                    conflicts++;
+                }
+            }
+
+            if (refused == null) updates.put(DbKeys.outboxAppliedPath(action.getId()), action.getTime());
+            results.put(action.getId(), refused);
+        }
+        putCounters(updates, counters);
+
+        // Only the plan that is reported counts its refusals, not the attempts before it
+        int refusedDecisions = conflicts;
+        if (updates.isEmpty()) {
+            ApprovalTransition.countConflicts(refusedDecisions);
+            callback.onResult(results, null);
+            return;
+        }
+        // ✅ The whole batch in one multi-path write. If a document moved since the reads, its state
+        //    rule refuses all of it: read again and re-plan, so only the moved ones are refused
+        dbRef.updateChildren(updates)
+                .addOnSuccessListener(unused -> {
+                    ApprovalTransition.countConflicts(refusedDecisions);
+                    callback.onResult(results, null);
+                })
+                .addOnFailureListener(e -> {
+                    if (attempt >= ApprovalTransition.MAX_ATTEMPTS) {
+                        callback.onResult(null, e);
+                        return;
+                    }
+                    ApprovalTransition.countRetry();
+                    flush(actions, attempt + 1, callback);
+                });
+    }
+
+    /** Copies the cycle to documentRemarksArchive, clears it from the feed and leaves its summary. */
+    private static void putCompaction(Map<String, Object> updates, String docId, Map<String, RemarkRecord> feed,
+                                      RemarkCompaction.Plan compaction) {
+        int cycle = compaction.getCycle();
+        for (String key : compaction.getArchivedKeys()) {
+            updates.put(DbKeys.archivedRemarkPath(docId, cycle, key), remarkData(feed.get(key)));
+            updates.put(DbKeys.remarkPath(docId, key), null);
+        }
+
+        Map<String, Object> summaryRemark = remarkData(compaction.getSummary());
+        summaryRemark.put("cycle", cycle);
+        summaryRemark.put("count", compaction.getArchivedKeys().size());
+        updates.put(DbKeys.remarkPath(docId, compaction.getSummaryKey()), summaryRemark);
+        updates.put("documents/" + docId + "/summary/archivedCycles", cycle);
+    }
+
+    private static Map<String, Object> remarkData(RemarkRecord remarkRecord) {
+        Map<String, Object> remark = new HashMap<>();
+        remark.put("by", remarkRecord.getBy());
+        remark.put("status", remarkRecord.getStatus());
+        remark.put("comment", remarkRecord.getComment());
+        remark.put("time", remarkRecord.getTime());
+        return remark;
+    }
+
+    /** A comment doesn't move the document: the remark, plus keeping it in this approver's inbox. */
+    private static void putComment(Map<String, Object> updates, String docId, String approverEmail, String comment,
+                                   long timestamp) {
+        putRemark(updates, docId, DbKeys.emailKey(approverEmail), "Commented", comment, timestamp);
+        updates.put(DbKeys.inboxPath(approverEmail, docId), timestamp);
+        updates.put("documents/" + docId + "/updatedAt", timestamp);
+    }
+
+    /** Remarks live only in the flat, time-ordered feed; documents/{docId} stays small. */
+    private static void putRemark(Map<String, Object> updates, String docId, String adminKey, String action,
+                                  String comment, long timestamp) {
+        Map<String, Object> feedRemark = new HashMap<>();
+        feedRemark.put("by", adminKey);
+        feedRemark.put("status", action);
+        feedRemark.put("comment", comment);
+        feedRemark.put("time", timestamp);
+        updates.put(DbKeys.remarkPath(docId, DbKeys.remarkKey(adminKey, timestamp)), feedRemark);
+    }
+
+    // ---------------------------------------------------------------- decoding
+
+    /** Every document under a query result, in query order; large results decode in parallel. */
+    static List<DocumentRecord> decodeChildren(DataSnapshot parent) {
+        List<DataSnapshot> children = new ArrayList<>((int) parent.getChildrenCount());
+        for (DataSnapshot child : parent.getChildren()) children.add(child);
+        return DocumentDecoder.decodeAll(children, DataSnapshot::getKey, DataSnapshot::getValue);
+    }
+}
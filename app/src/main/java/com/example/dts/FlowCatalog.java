@@ -0,0 +1,163 @@
+package com.example.dts;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide copy of flows/ (approver chains) and roleNames/ (display names), kept in
+ * DashboardCache between launches. Both are read together at one flowsVersion: a sync reads
+ * that single number and downloads the catalog again only when it has moved, so whoever edits
+ * flows/ or roleNames/ must bump flowsVersion in the same write; the rules refuse an edit
+ * that doesn't.
+ * Everything runs on the main thread, like the Firebase and DashboardCache callbacks.
+ */
+final class FlowCatalog {
+
+    static final String FLOWS_VERSION = "flowsVersion";
+    static final String ROLE_NAMES = "roleNames";
+
+    interface Callback {
+        /** catalog is this instance, up to date; null when the sync failed (error set). */
+        void onResult(@Nullable FlowCatalog catalog, @Nullable Exception error);
+    }
+
+    private static final FlowCatalog INSTANCE = new FlowCatalog();
+
+    static FlowCatalog getInstance() { return INSTANCE; }
+
+    private long version = -1; // -1 = nothing loaded
+    private Map<String, List<String>> flows = Collections.emptyMap();
+    private Map<String, String> roleNames = Collections.emptyMap();
+
+    private DashboardCache cache;
+    private boolean diskLoaded;
+    private final List<Runnable> afterDisk = new ArrayList<>();
+    // Downloads already on their way, by the version they will store; later callers wait on them
+    private final Map<Long, List<Callback>> downloading = new HashMap<>();
+
+    private FlowCatalog() { }
+
+    /** Loads the disk copy once; then runs onLoaded (at once if it already has). */
+    void load(Context context, @Nullable Runnable onLoaded) {
+        if (diskLoaded) {
+            if (onLoaded != null) onLoaded.run();
+            return;
+        }
+        if (onLoaded != null) afterDisk.add(onLoaded);
+        if (cache != null) return; // already loading
+        cache = DashboardCache.getInstance(context);
+        cache.loadCatalog((diskVersion, diskFlows, diskNames) -> {
+            // A download that finished first is newer than the disk copy
+            if (version < 0 && diskVersion >= 0) set(diskVersion, diskFlows, diskNames);
+            diskLoaded = true;
+            for (Runnable r : new ArrayList<>(afterDisk)) r.run();
+            afterDisk.clear();
+        });
+    }
+
+    /** Reads flowsVersion and downloads the catalog only if it differs from the copy held. */
+    void sync(Context context, Callback callback) {
+        load(context, () -> FirebaseDatabase.getInstance().getReference().child(FLOWS_VERSION).get()
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        callback.onResult(null, task.getException());
+                        return;
+                    }
+                    long serverVersion = versionOf(task.getResult());
+                    if (serverVersion == version) callback.onResult(this, null);
+                    else download(serverVersion, callback);
+                }));
+    }
+
+    /** Downloads flows/ and roleNames/ and stores them as serverVersion, just read from flowsVersion. */
+    void download(long serverVersion, Callback callback) {
+        List<Callback> waiting = downloading.get(serverVersion);
+        if (waiting != null) {
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        downloading.put(serverVersion, waiting);
+
+        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference();
+        dbRef.child("flows").get().addOnCompleteListener(flowsTask -> {
+            if (!flowsTask.isSuccessful()) {
+                finish(serverVersion, flowsTask.getException());
+                return;
+            }
+            dbRef.child(ROLE_NAMES).get().addOnCompleteListener(namesTask -> {
+                if (!namesTask.isSuccessful()) {
+                    finish(serverVersion, namesTask.getException());
+                    return;
+                }
+                Map<String, List<String>> newFlows = new LinkedHashMap<>();
+                for (DataSnapshot flowSnap : flowsTask.getResult().getChildren()) {
+                    List<String> chain = new ArrayList<>();
+                    for (DataSnapshot approver : flowSnap.getChildren()) {
+                        String email = approver.getValue(String.class);
+                        if (email != null) chain.add(email);
+                    }
+                    newFlows.put(flowSnap.getKey(), chain);
+                }
+                Map<String, String> newNames = new HashMap<>();
+                for (DataSnapshot nameSnap : namesTask.getResult().getChildren()) {
+                    String name = nameSnap.getValue(String.class);
+                    if (name != null) newNames.put(nameSnap.getKey(), name);
+                }
+                set(serverVersion, newFlows, newNames);
+                if (cache != null) cache.replaceCatalog(serverVersion, newFlows, newNames);
+                finish(serverVersion, null);
+            });
+        });
+    }
+
+    private void finish(long serverVersion, @Nullable Exception error) {
+        List<Callback> waiting = downloading.remove(serverVersion);
+        if (waiting == null) return;
+        for (Callback callback : waiting) callback.onResult(error == null ? this : null, error);
+    }
+
+    private void set(long newVersion, Map<String, List<String>> newFlows, Map<String, String> newNames) {
+        version = newVersion;
+        flows = Collections.unmodifiableMap(new LinkedHashMap<>(newFlows));
+        roleNames = Collections.unmodifiableMap(new HashMap<>(newNames));
+    }
+
+    /** A missing flowsVersion counts as 0, so a database that never bumped it still matches. */
+    static long versionOf(DataSnapshot snapshot) {
+        Long value = snapshot.getValue(Long.class);
+        return value != null ? value : 0;
+    }
+
+    /** flowsVersion this copy was read at; -1 before anything is loaded. */
+    long getVersion() { return version; }
+
+    /** Flow name -> approver chain, in catalog order. */
+    Map<String, List<String>> getFlows() { return flows; }
+
+    /** The cached chain, or null when this copy doesn't have the flow. */
+    @Nullable
+    List<String> chainFor(String documentType) {
+        List<String> chain = flows.get(documentType);
+        return chain != null && !chain.isEmpty() ? chain : null;
+    }
+
+    /** roleNames/{emailKey}, or null when the catalog doesn't name it. */
+    @Nullable
+    String displayName(String roleKey) {
+        return roleNames.get(roleKey);
+    }
+}
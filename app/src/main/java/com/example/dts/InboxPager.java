@@ -0,0 +1,243 @@
+package com.example.dts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Loads approverInbox/{me} in live pages of PAGE_SIZE, by key: docIds are push ids, so key
+ * order is submission order, the order the admin list is sorted in. Page n starts after the
+ * last key page n-1 had when it first loaded, so cursors never move.
+ *
+ * Loaded pages always form one contiguous range. The range grows at the end as the visible
+ * rows near its last key, and pages more than KEEP_PAGES away from the visible ones are dropped
+ * from either end, along with their rows and document listeners. A dropped page loads again
+ * from its saved cursor when the user scrolls back to it. Nearness is counted in inbox keys,
+ * not list rows, so a filter that hides most rows doesn't pull in page after page, and a page
+ * is only dropped if the keys left beside the visible rows keep it from loading straight back.
+ */
+final class InboxPager {
+
+    static final int PAGE_SIZE = 50;
+    /** Start loading the next page when the last visible row is this many keys from the end. */
+    static final int PREFETCH_ROWS = 15;
+    private static final int KEEP_PAGES = 2;
+
+    interface Listener {
+        /** docId entered the first loaded page that holds it. */
+        void onEntryAdded(String docId);
+        /** No loaded page holds docId any more: it left the inbox, or (released) its page was dropped. */
+        void onEntryRemoved(String docId, boolean released);
+        /**
+         * A page answered: docIds after afterKey and up to lastKey (no upper bound when null,
+         * for the tail page) that are not in keys are not in the inbox.
+         */
+        void onPageLoaded(@Nullable String afterKey, @Nullable String lastKey, TreeSet<String> keys);
+    }
+
+    private static final class Page {
+        final int index;
+        final String afterKey; // null for the first page
+        final TreeSet<String> keys = new TreeSet<>();
+        SubscriptionRegistry.Subscription subscription;
+        boolean loaded;
+
+        Page(int index, String afterKey) {
+            this.index = index;
+            this.afterKey = afterKey;
+        }
+    }
+
+    private final DatabaseReference inbox;
+    private final SubscriptionRegistry subscriptions;
+    private final Listener listener;
+
+    // cursors.get(n) is the key page n starts after; null for page 0
+    private final List<String> cursors = new ArrayList<>();
+    private final TreeMap<Integer, Page> pages = new TreeMap<>();
+    private final Map<String, Integer> refCounts = new HashMap<>();
+    private Page loading;
+
+    InboxPager(DatabaseReference inbox, SubscriptionRegistry subscriptions, Listener listener) {
+        this.inbox = inbox;
+        this.subscriptions = subscriptions;
+        this.listener = listener;
+        cursors.add(null);
+    }
+
+    void start() {
+        if (pages.isEmpty() && loading == null) load(0);
+    }
+
+    /**
+     * Called as the list scrolls or changes. firstDocId / lastDocId are the first and last
+     * visible rows; both null when the whole list, filtered or not, fits on screen, which
+     * reaches both ends of the loaded range.
+     */
+    void onViewport(@Nullable String firstDocId, @Nullable String lastDocId) {
+        if (pages.isEmpty() || loading != null) return;
+
+        int lo = pages.firstKey();
+        int hi = pages.lastKey();
+        boolean wholeList = firstDocId == null || lastDocId == null;
+        if ((wholeList || countKeys(lastDocId, false) < PREFETCH_ROWS) && hasMoreAfter(pages.get(hi))) {
+            load(hi + 1);
+            return;
+        }
+        if ((wholeList || countKeys(firstDocId, true) < PREFETCH_ROWS) && lo > 0) {
+            load(lo - 1);
+            return;
+        }
+        if (wholeList) return;
+
+        Integer firstPage = pageOf(firstDocId);
+        Integer lastPage = pageOf(lastDocId);
+        if (firstPage == null || lastPage == null) return;
+        while (pages.firstKey() < firstPage - KEEP_PAGES
+                && countKeys(firstDocId, true) - pages.firstEntry().getValue().keys.size() >= PREFETCH_ROWS) {
+            release(pages.firstKey());
+        }
+        while (pages.lastKey() > lastPage + KEEP_PAGES
+                && countKeys(lastDocId, false) - pages.lastEntry().getValue().keys.size() >= PREFETCH_ROWS) {
+            release(pages.lastKey());
+        }
+    }
+
+    /** True once every page from the head to the live tail of the inbox has answered. */
+    boolean reachedEnds() {
+        if (pages.isEmpty() || loading != null || pages.firstKey() != 0) return false;
+        Page tail = pages.lastEntry().getValue();
+        return tail.loaded && !hasMoreAfter(tail);
+    }
+
+    /** True when docId falls in a page that has answered, i.e. whether it's in the inbox is known. */
+    boolean covers(String docId) {
+        for (Page page : pages.values()) {
+            if (!page.loaded) continue;
+            boolean afterStart = page.afterKey == null || docId.compareTo(page.afterKey) > 0;
+            String endKey = endKey(page);
+            if (afterStart && (endKey == null || docId.compareTo(endKey) <= 0)) return true;
+        }
+        return false;
+    }
+
+    boolean contains(String docId) {
+        return refCounts.containsKey(docId);
+    }
+
+    private void load(int index) {
+        if (index >= cursors.size()) {
+            // The previous page filled up after it loaded: it now ends where this one starts
+            cursors.add(pages.get(index - 1).keys.last());
+        }
+        Page page = new Page(index, cursors.get(index));
+        pages.put(index, page);
+        loading = page;
+
+        Query query = inbox.orderByKey();
+        if (page.afterKey != null) query = query.startAfter(page.afterKey);
+        query = query.limitToFirst(PAGE_SIZE);
+
+        page.subscription = subscriptions.addChildListener("inbox/" + index, query, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot entry, String previousChildName) {
+                if (page.keys.add(entry.getKey())) retain(entry.getKey());
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot entry) {
+                if (page.keys.remove(entry.getKey())) unretain(entry.getKey(), false);
+            }
+
+            @Override public void onChildChanged(@NonNull DataSnapshot entry, String previousChildName) {}
+            @Override public void onChildMoved(@NonNull DataSnapshot entry, String previousChildName) {}
+            @Override public void onCancelled(@NonNull DatabaseError error) {}
+        });
+
+        // Value events fire after the initial child events, so this sees the whole page
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (loading == page) loading = null;
+                if (pages.get(index) != page) return; // released before it answered
+                page.loaded = true;
+                if (hasMoreAfter(page) && cursors.size() == index + 1) cursors.add(page.keys.last());
+                listener.onPageLoaded(page.afterKey, endKey(page), new TreeSet<>(page.keys));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                if (loading == page) loading = null;
+            }
+        });
+    }
+
+    private void release(int index) {
+        Page page = pages.remove(index);
+        if (page == null) return;
+        page.subscription.remove();
+        for (String docId : page.keys) unretain(docId, true);
+        page.keys.clear();
+    }
+
+    /** A full page may have more keys after it; a short one is the live tail of the inbox. */
+    private boolean hasMoreAfter(Page page) {
+        return page.keys.size() >= PAGE_SIZE || cursors.size() > page.index + 1;
+    }
+
+    /** Last key of the range this page answers for; null for the tail, which is open-ended. */
+    @Nullable
+    private String endKey(Page page) {
+        if (cursors.size() > page.index + 1) return cursors.get(page.index + 1);
+        return page.keys.size() >= PAGE_SIZE ? page.keys.last() : null;
+    }
+
+    /** Loaded keys before docId (before) or after it, whether or not the filter shows them. */
+    private int countKeys(String docId, boolean before) {
+        int count = 0;
+        for (Page page : pages.values()) {
+            count += before ? page.keys.headSet(docId, false).size() : page.keys.tailSet(docId, false).size();
+        }
+        return count;
+    }
+
+    @Nullable
+    private Integer pageOf(@Nullable String docId) {
+        if (docId == null) return null;
+        for (Page page : pages.values()) {
+            if (page.keys.contains(docId)) return page.index;
+        }
+        return null;
+    }
+
+    // Neighbouring live windows overlap briefly when an entry leaves one, so docIds are counted
+    private void retain(String docId) {
+        Integer count = refCounts.get(docId);
+        refCounts.put(docId, count == null ? 1 : count + 1);
+        if (count == null) listener.onEntryAdded(docId);
+    }
+
+    private void unretain(String docId, boolean released) {
+        Integer count = refCounts.get(docId);
+        if (count == null) return;
+        if (count > 1) {
+            refCounts.put(docId, count - 1);
+        } else {
+            refCounts.remove(docId);
+            listener.onEntryRemoved(docId, released);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.dts;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.widget.Toast;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthInvalidUserException;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Entry point. A remembered user with a persisted FirebaseAuth session goes straight to their
+ * dashboard using the role cached at the last sign-in; the session and role are verified in the
+ * background afterwards. Everyone else lands on LoginActivity. No password sign-in happens here.
+ */
+public class LaunchActivity extends AppCompatActivity {
+
+    // Same prefs as LoginActivity, so every logout (which clears them) also forgets the role
+    private static final String PREFS_NAME = "DTSLoginPrefs";
+    private static final String KEY_REMEMBER = "remember";
+    private static final String KEY_ROLE_UID = "cachedRoleUid";
+    private static final String KEY_ROLE = "cachedRole";
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        StartupTrace.begin("LaunchActivity.route");
+        try {
+            route();
+        } finally {
+            StartupTrace.end();
+        }
+    }
+
+    private void route() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+
+        if (user == null || !prefs.getBoolean(KEY_REMEMBER, false)) {
+            StartupTrace.mark("route: login");
+            startActivity(new Intent(this, LoginActivity.class));
+            finish();
+            return;
+        }
+
+        String role = cachedRole(this, user.getUid());
+        if (role != null) {
+            // ⚡ Zero round trips: the dashboard opens now, verification follows
+            StartupTrace.mark("route: cached " + role);
+            startActivity(dashboardIntent(this, role));
+            verifyInBackground(getApplicationContext(), user, role);
+            finish();
+            return;
+        }
+
+        // Signed in, but no role cached yet (e.g. first launch after an update): one profile read
+        UserDirectory.getInstance().get(user.getUid(), (profile, error) -> {
+            String fetchedRole = profile != null ? profile.getPrimaryRole() : null;
+            if (fetchedRole != null) {
+                cacheRole(this, user.getUid(), fetchedRole);
+                StartupTrace.mark("route: fetched " + fetchedRole);
+                startActivity(dashboardIntent(this, fetchedRole));
+            } else {
+                StartupTrace.mark("route: login (no profile)");
+                startActivity(new Intent(this, LoginActivity.class));
+            }
+            finish();
+        });
+    }
+
+    /** Remembers which dashboard uid belongs on; call after every successful sign-in. */
+    static void cacheRole(Context context, String uid, String role) {
+        context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .edit()
+                .putString(KEY_ROLE_UID, uid)
+                .putString(KEY_ROLE, role)
+                .apply();
+    }
+
+    @Nullable
+    private static String cachedRole(Context context, String uid) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        return uid.equals(prefs.getString(KEY_ROLE_UID, null)) ? prefs.getString(KEY_ROLE, null) : null;
+    }
+
+    static Intent dashboardIntent(Context context, String role) {
+        if ("Student".equalsIgnoreCase(role)) {
+            return new Intent(context, StudentDashboardActivity.class);
+        }
+        Intent intent = new Intent(context, AdminDashboardActivity.class);
+        intent.putExtra("ROLE", role);
+        return intent;
+    }
+
+    /** Checks the session is still valid and the role unchanged; reroutes only if something is wrong. */
+    private static void verifyInBackground(Context appContext, FirebaseUser user, String cachedRole) {
+        user.reload().addOnCompleteListener(reload -> {
+            if (!reload.isSuccessful()) {
+                // Deleted / disabled account or revoked session; plain network errors keep the session
+                if (reload.getException() instanceof FirebaseAuthInvalidUserException) {
+                    expireSession(appContext, "Your session has expired. Please sign in again.");
+                }
+                return;
+            }
+
+            UserDirectory.getInstance().get(user.getUid(), (profile, error) -> {
+                if (error != null) return;
+                String role = profile != null ? profile.getPrimaryRole() : null;
+                if (role == null) {
+                    expireSession(appContext, "Account setup incomplete. Contact admin.");
+                    return;
+                }
+                StartupTrace.mark("session verified");
+                if (role.equals(cachedRole)) return;
+
+                cacheRole(appContext, user.getUid(), role);
+                if ("Student".equalsIgnoreCase(role) != "Student".equalsIgnoreCase(cachedRole)) {
+                    // Role moved between student and admin since last time: reopen the right dashboard
+                    Intent intent = dashboardIntent(appContext, role);
+                    intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                    appContext.startActivity(intent);
+                }
+            });
+        });
+    }
+
+    private static void expireSession(Context appContext, String message) {
+        DashboardCache.getInstance(appContext).clear();
+        UserDirectory.getInstance().clear();
+        FirebaseAuth.getInstance().signOut();
+        appContext.getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit().clear().apply();
+
+        Toast.makeText(appContext, message, Toast.LENGTH_LONG).show();
+        Intent intent = new Intent(appContext, LoginActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        appContext.startActivity(intent);
+    }
+}
@@ -17,9 +17,6 @@ import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 public class LoginActivity extends AppCompatActivity {
 
@@ -32,7 +29,6 @@ public class LoginActivity extends AppCompatActivity {
     private View rootLayout;
 
     private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
 
     private String selectedRole = "Student"; // default tab
 
@@ -58,7 +54,6 @@ public class LoginActivity extends AppCompatActivity {
         progressBar = findViewById(R.id.progress);
 
         mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference("users");
 
         if (roleTabLayout.getTabCount() > 0) {
             roleTabLayout.getTabAt(0).select(); // Student by default
@@ -79,10 +74,9 @@ public class LoginActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        // Remembered sessions never get here: LaunchActivity routes them straight to a dashboard
         loadSavedCredentials();
 
-        autoLoginIfRemembered();
-
         btnSignIn.setOnClickListener(v -> loginUser());
     }
 
@@ -103,13 +97,14 @@ public class LoginActivity extends AppCompatActivity {
                     FirebaseUser user = mAuth.getCurrentUser();
                     if (user != null) {
                         String uid = user.getUid();
-                        dbRef.child(uid).get().addOnCompleteListener(task -> {
+                        // Route on the role as it is now, not a profile cached before this sign-in
+                        UserDirectory.getInstance().invalidate(uid);
+                        UserDirectory.getInstance().get(uid, (profile, error) -> {
                             progressBar.setVisibility(View.GONE);
                             btnSignIn.setEnabled(true);
 
-                            if (task.isSuccessful() && task.getResult().exists()) {
-                                DataSnapshot snapshot = task.getResult();
-                                String role = snapshot.child("primaryRole").getValue(String.class);
+                            if (profile != null) {
+                                String role = profile.getPrimaryRole();
 
                                 if (role == null) {
                                     showError("Account setup incomplete. Contact admin.");
@@ -117,6 +112,7 @@ public class LoginActivity extends AppCompatActivity {
                                 }
 
                                 saveCredentialsIfNeeded(email, password, cbRemember.isChecked());
+                                LaunchActivity.cacheRole(LoginActivity.this, uid, role);
 
                                 if ("Student".equalsIgnoreCase(role) && "Student".equalsIgnoreCase(selectedRole)) {
                                     startActivity(new Intent(LoginActivity.this, StudentDashboardActivity.class));
@@ -170,49 +166,6 @@ public class LoginActivity extends AppCompatActivity {
         }
     }
 
-    private void autoLoginIfRemembered() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        boolean remember = prefs.getBoolean(KEY_REMEMBER, false);
-        String email = prefs.getString(KEY_EMAIL, "");
-        String password = prefs.getString(KEY_PASSWORD, "");
-
-        if (remember && !email.isEmpty() && !password.isEmpty()) {
-            progressBar.setVisibility(View.VISIBLE);
-            btnSignIn.setEnabled(false);
-
-            mAuth.signInWithEmailAndPassword(email, password)
-                    .addOnSuccessListener(authResult -> {
-                        FirebaseUser user = mAuth.getCurrentUser();
-                        if (user != null) {
-                            dbRef.child(user.getUid()).get().addOnSuccessListener(snapshot -> {
-                                progressBar.setVisibility(View.GONE);
-                                btnSignIn.setEnabled(true);
-
-                                if (snapshot.exists()) {
-                                    String role = snapshot.child("primaryRole").getValue(String.class);
-
-                                    if ("Student".equalsIgnoreCase(role)) {
-                                        startActivity(new Intent(LoginActivity.this, StudentDashboardActivity.class));
-                                    } else {
-                                        Intent intent = new Intent(LoginActivity.this, AdminDashboardActivity.class);
-                                        intent.putExtra("ROLE", role);
-                                        startActivity(intent);
-                                    }
-                                    finish();
-                                } else {
-                                    showError("User data not found. Please log in again.");
-                                }
-                            });
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        progressBar.setVisibility(View.GONE);
-                        btnSignIn.setEnabled(true);
-                        showError("Auto-login failed. Please sign in manually.");
-                    });
-        }
-    }
-
     private void showError(String message) {
         Snackbar snackbar = Snackbar.make(rootLayout, message, Snackbar.LENGTH_LONG);
         snackbar.setBackgroundTint(getResources().getColor(android.R.color.holo_red_dark));
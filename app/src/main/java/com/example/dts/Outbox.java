@@ -0,0 +1,207 @@
+package com.example.dts;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.dts.core.ActionOutbox;
+import com.example.dts.core.QueuedAction;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Every submission and approver action goes through here: it is saved to disk first, then
+ * sent with whatever else is queued in one DocumentRepository.flush() as soon as the device is
+ * online. Failed flushes back off (ActionOutbox); a network coming back flushes at once.
+ * Queue depth and flush latency are logged under "DtsOutbox" after every flush.
+ * Runs on the main thread only.
+ */
+final class Outbox implements ActionOutbox.Listener {
+
+    private static final String TAG = "DtsOutbox";
+
+    interface ResultCallback {
+        /**
+         * Every action of one enqueue() is resolved. actionIds[i] is the id the i-th action is
+         * queued under; refused maps actionId -> reason for the ones the server turned down.
+         */
+        void onResults(List<String> actionIds, Map<String, String> refused);
+    }
+
+    private static final class Waiter {
+        final List<String> actionIds;
+        final Set<String> remaining;
+        final Map<String, String> refused = new HashMap<>();
+        final ResultCallback callback;
+
+        Waiter(List<String> actionIds, ResultCallback callback) {
+            this.actionIds = actionIds;
+            this.remaining = new LinkedHashSet<>(actionIds);
+            this.callback = callback;
+        }
+    }
+
+    private static Outbox instance;
+
+    private final OutboxStore store;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    private ActionOutbox queue; // null until the disk copy has loaded
+    private final List<QueuedAction> early = new ArrayList<>();
+    private boolean online;
+
+    static synchronized Outbox getInstance(Context context) {
+        if (instance == null) instance = new Outbox(context.getApplicationContext());
+        return instance;
+    }
+
+    private Outbox(Context context) {
+        store = new OutboxStore(context);
+        store.load(restored -> {
+            queue = new ActionOutbox(store, restored, System::currentTimeMillis, new Random());
+            queue.addListener(this);
+            for (QueuedAction action : early) {
+                // Folded into a restored action: whoever waits on it now waits on that one
+                String id = queue.enqueue(action).getId();
+                if (id.equals(action.getId())) continue;
+                for (Waiter waiter : waiters) {
+                    if (!waiter.remaining.remove(action.getId())) continue;
+                    waiter.remaining.add(id);
+                    waiter.actionIds.set(waiter.actionIds.indexOf(action.getId()), id);
+                }
+            }
+            early.clear();
+            if (queue.getDepth() > 0) Log.i(TAG, "restored " + queue.getDepth() + " queued actions");
+            flush();
+        });
+
+        ConnectivityManager connectivity = context.getSystemService(ConnectivityManager.class);
+        Network active = connectivity.getActiveNetwork();
+        NetworkCapabilities caps = active != null ? connectivity.getNetworkCapabilities(active) : null;
+        online = caps != null && caps.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                mainHandler.post(() -> {
+                    online = true;
+                    // A delay earned while offline says nothing about this network
+                    if (queue != null) queue.resetBackoff();
+                    mainHandler.removeCallbacks(flushRunnable);
+                    flush();
+                });
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                mainHandler.post(() -> online = false);
+            }
+        });
+    }
+
+    /** A fresh idempotency key; push ids sort by creation time, like the queue. */
+    static String newActionId() {
+        return FirebaseDatabase.getInstance().getReference().push().getKey();
+    }
+
+    boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Queues actions and flushes. A double tap folds into the action already waiting, so the
+     * returned ids (one per action, in order) and the callback refer to that one.
+     * callback may be null; see cancel().
+     */
+    List<String> enqueue(List<QueuedAction> actions, ResultCallback callback) {
+        List<String> ids = new ArrayList<>(actions.size());
+        for (QueuedAction action : actions) {
+            if (queue == null) {
+                early.add(action);
+                ids.add(action.getId());
+            } else {
+                ids.add(queue.enqueue(action).getId());
+            }
+        }
+        if (callback != null) waiters.add(new Waiter(new ArrayList<>(ids), callback));
+        flush();
+        return ids;
+    }
+
+    /** The caller went away (dialog dismissed): its actions stay queued, only the callback is dropped. */
+    void cancel(ResultCallback callback) {
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            if (it.next().callback == callback) it.remove();
+        }
+    }
+
+    int getDepth() {
+        return queue != null ? queue.getDepth() : early.size();
+    }
+
+    long getLastFlushLatencyMs() {
+        return queue != null ? queue.getLastFlushLatencyMs() : 0;
+    }
+
+    private void flush() {
+        if (queue == null || !online) return;
+        List<QueuedAction> batch = queue.nextBatch();
+        if (batch.isEmpty()) return;
+
+        Repositories.documents().flush(batch, (results, error) -> {
+            if (error != null) {
+                long delay = queue.onFlushFailed();
+                Log.w(TAG, "flush of " + batch.size() + " failed (" + error.getMessage() + "), retry in "
+                        + delay + "ms, depth " + queue.getDepth());
+                mainHandler.removeCallbacks(flushRunnable);
+                mainHandler.postDelayed(flushRunnable, delay);
+                return;
+            }
+            queue.onFlushed(batch, results);
+            Log.i(TAG, "flushed " + batch.size() + " in " + queue.getLastFlushLatencyMs() + "ms (oldest waited "
+                    + queue.getLastQueueDelayMs() + "ms), depth " + queue.getDepth() + ", re-planned "
+                    + ApprovalTransition.getRetryCount() + ", conflicts " + ApprovalTransition.getConflictCount());
+            // More than one batch's worth was queued
+            flush();
+        });
+    }
+
+    // ---------------------------------------------------------------- ActionOutbox.Listener
+
+    @Override
+    public void onResolved(QueuedAction action, String droppedReason) {
+        if (droppedReason != null) Log.i(TAG, action.getKind() + " " + action.getId() + " refused: " + droppedReason);
+        List<Waiter> finished = new ArrayList<>();
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            if (!waiter.remaining.remove(action.getId())) continue;
+            if (droppedReason != null) waiter.refused.put(action.getId(), droppedReason);
+            if (waiter.remaining.isEmpty()) {
+                it.remove();
+                finished.add(waiter);
+            }
+        }
+        // Outside the loop: a callback may cancel() or enqueue() again
+        for (Waiter waiter : finished) waiter.callback.onResults(waiter.actionIds, waiter.refused);
+    }
+
+    @Override
+    public void onDepthChanged(int depth) {
+        // Read through getDepth(); logged with every flush
+    }
+}
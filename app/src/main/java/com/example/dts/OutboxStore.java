@@ -0,0 +1,117 @@
+package com.example.dts;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.dts.core.ActionOutbox;
+import com.example.dts.core.QueuedAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk copy of the Outbox queue. Unlike DashboardCache this is not a cache: every row is
+ * an action the user took that the server hasn't confirmed, so nothing here is ever evicted
+ * or dropped on a schema change. Writes go to one background thread in call order.
+ */
+final class OutboxStore extends SQLiteOpenHelper implements ActionOutbox.Store {
+
+    interface LoadCallback {
+        void onLoaded(List<QueuedAction> actions);
+    }
+
+    private static final String DB_NAME = "outbox.db";
+    private static final int DB_VERSION = 2;
+
+    private final ExecutorService disk = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    OutboxStore(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE actions ("
+                + "seq INTEGER PRIMARY KEY AUTOINCREMENT, id TEXT NOT NULL UNIQUE, kind TEXT NOT NULL,"
+                + "doc_id TEXT, student_id TEXT, document_type TEXT, approver_email TEXT,"
+                + "action TEXT, comment TEXT, chain_version INTEGER NOT NULL DEFAULT -1,"
+                + "approver_index INTEGER NOT NULL DEFAULT -1, time INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Migrated in place: these are unsent user actions
+        if (oldVersion < 2) {
+            // Actions queued before version 2 didn't record the state they were taken on (QueuedAction.UNKNOWN)
+            db.execSQL("ALTER TABLE actions ADD COLUMN chain_version INTEGER NOT NULL DEFAULT -1");
+            db.execSQL("ALTER TABLE actions ADD COLUMN approver_index INTEGER NOT NULL DEFAULT -1");
+        }
+    }
+
+    /** Queued actions, oldest first; the callback runs on the main thread. */
+    void load(LoadCallback callback) {
+        disk.execute(() -> {
+            List<QueuedAction> actions = new ArrayList<>();
+            try (Cursor c = getReadableDatabase().query("actions", null, null, null, null, null, "seq")) {
+                while (c.moveToNext()) actions.add(readAction(c));
+            }
+            mainHandler.post(() -> callback.onLoaded(actions));
+        });
+    }
+
+    @Override
+    public void put(QueuedAction action) {
+        ContentValues v = new ContentValues();
+        v.put("id", action.getId());
+        v.put("kind", action.getKind());
+        v.put("doc_id", action.getDocId());
+        v.put("student_id", action.getStudentId());
+        v.put("document_type", action.getDocumentType());
+        v.put("approver_email", action.getApproverEmail());
+        v.put("action", action.getAction());
+        v.put("comment", action.getComment());
+        v.put("chain_version", action.getChainVersion());
+        v.put("approver_index", action.getApproverIndex());
+        v.put("time", action.getTime());
+        disk.execute(() -> getWritableDatabase().insertWithOnConflict("actions", null, v,
+                SQLiteDatabase.CONFLICT_IGNORE));
+    }
+
+    @Override
+    public void remove(List<String> actionIds) {
+        List<String> ids = new ArrayList<>(actionIds);
+        disk.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (String id : ids) db.delete("actions", "id = ?", new String[]{id});
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    private static QueuedAction readAction(Cursor c) {
+        return new QueuedAction(
+                c.getString(c.getColumnIndexOrThrow("id")),
+                c.getString(c.getColumnIndexOrThrow("kind")),
+                c.getString(c.getColumnIndexOrThrow("doc_id")),
+                c.getString(c.getColumnIndexOrThrow("student_id")),
+                c.getString(c.getColumnIndexOrThrow("document_type")),
+                c.getString(c.getColumnIndexOrThrow("approver_email")),
+                c.getString(c.getColumnIndexOrThrow("action")),
+                c.getString(c.getColumnIndexOrThrow("comment")),
+                c.getLong(c.getColumnIndexOrThrow("chain_version")),
+                c.getInt(c.getColumnIndexOrThrow("approver_index")),
+                c.getLong(c.getColumnIndexOrThrow("time")));
+    }
+}
@@ -7,17 +7,11 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 public class ProfileActivity extends AppCompatActivity {
 
@@ -26,7 +20,6 @@ public class ProfileActivity extends AppCompatActivity {
     private MaterialButton btnSavePassword, btnLogout;
 
     private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
     private String userRole = "Student"; // default fallback
 
     @Override
@@ -50,7 +43,6 @@ public class ProfileActivity extends AppCompatActivity {
 
         // 🔹 Firebase setup
         mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference();
 
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
@@ -64,38 +56,34 @@ public class ProfileActivity extends AppCompatActivity {
 
     /** 🔹 Load profile info */
     private void loadProfileFromFirebase(String uid) {
-        dbRef.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
-                    Toast.makeText(ProfileActivity.this, "Profile not found", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-
-                String name = snapshot.child("name").getValue(String.class);
-                String role = snapshot.child("primaryRole").getValue(String.class);
-                String email = snapshot.child("email").getValue(String.class);
-                String userId = snapshot.child("userId").getValue(String.class);
-
-                if (role != null) userRole = role;
-
-                tvProfileName.setText(name != null ? name : "N/A");
-                tvProfileRole.setText(role != null ? role : "N/A");
-                tvProfileEmail.setText(email != null ? "Email ID: " + email : "Email ID: N/A");
-
-                // 🔸 Dynamic Top Bar Title
-                if ("Student".equalsIgnoreCase(role)) {
-                    tvTopTitle.setText("DTS Student");
-                    tvProfileId.setText(userId != null ? "Student ID: " + userId : "Student ID: N/A");
-                } else {
-                    tvTopTitle.setText("DTS Admin");
-                    tvProfileId.setText(userId != null ? "College ID: " + userId : "College ID: N/A");
-                }
+        UserDirectory.getInstance().get(uid, (profile, error) -> {
+            if (error != null) {
+                Toast.makeText(ProfileActivity.this, "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (profile == null) {
+                Toast.makeText(ProfileActivity.this, "Profile not found", Toast.LENGTH_SHORT).show();
+                return;
             }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(ProfileActivity.this, "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            String name = profile.getName();
+            String role = profile.getPrimaryRole();
+            String email = profile.getEmail();
+            String userId = profile.getUserId();
+
+            if (role != null) userRole = role;
+
+            tvProfileName.setText(name != null ? name : "N/A");
+            tvProfileRole.setText(role != null ? role : "N/A");
+            tvProfileEmail.setText(email != null ? "Email ID: " + email : "Email ID: N/A");
+
+            // 🔸 Dynamic Top Bar Title
+            if ("Student".equalsIgnoreCase(role)) {
+                tvTopTitle.setText("DTS Student");
+                tvProfileId.setText(userId != null ? "Student ID: " + userId : "Student ID: N/A");
+            } else {
+                tvTopTitle.setText("DTS Admin");
+                tvProfileId.setText(userId != null ? "College ID: " + userId : "College ID: N/A");
             }
         });
     }
@@ -137,6 +125,8 @@ public class ProfileActivity extends AppCompatActivity {
 
     /** 🔹 Logout */
     private void logoutUser() {
+        DashboardCache.getInstance(this).clear();
+        UserDirectory.getInstance().clear();
         FirebaseAuth.getInstance().signOut();
         getSharedPreferences("DTSLoginPrefs", MODE_PRIVATE).edit().clear().apply();
 
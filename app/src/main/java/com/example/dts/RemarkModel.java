@@ -0,0 +1,27 @@
+package com.example.dts;
+
+/** One timeline row: a system remark (Submitted / Resubmitted) or an approver's remark. */
+public class RemarkModel {
+    private final String key;        // unique within a document, e.g. "system_<time>" or "<roleKey>/<time>"
+    private final String roleKey;    // approver email key, or the system_ key for system remarks
+    private final String status;
+    private final String comment;
+    private final long time;
+    private final boolean system;
+
+    public RemarkModel(String key, String roleKey, String status, String comment, long time, boolean system) {
+        this.key = key;
+        this.roleKey = roleKey;
+        this.status = status;
+        this.comment = comment;
+        this.time = time;
+        this.system = system;
+    }
+
+    public String getKey() { return key; }
+    public String getRoleKey() { return roleKey; }
+    public String getStatus() { return status; }
+    public String getComment() { return comment; }
+    public long getTime() { return time; }
+    public boolean isSystem() { return system; }
+}
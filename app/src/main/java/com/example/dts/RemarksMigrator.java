@@ -0,0 +1,315 @@
+package com.example.dts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.dts.core.DocumentDecoder;
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.RemarkRecord;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online migration of inline documents/{id}/remarks into documentRemarks/{id}.
+ *
+ * One admin client at a time claims the run at migrations/splitRemarks (a transaction, like
+ * StatsReconciler; the claim lapses after CLAIM_MS so a run that died is picked up again).
+ * Documents are walked by key in chunks. Each document that still needs it is migrated on its
+ * own: first the keyed, idempotent copies outside it (feed, inbox, studentDocs), then one
+ * transaction per node it changes (state, summary, inline remarks), each committing only if
+ * that node is still as read. A document that changed in between stays legacy (the decoder
+ * still reads it) and the next run scans again from the start to pick it up.
+ * The checkpoint counts only the documents a transaction actually migrated, so overlapping
+ * runs can't count one twice.
+ */
+final class RemarksMigrator {
+
+    static final String CHECKPOINT = "migrations/splitRemarks";
+    private static final int CHUNK_SIZE = 25;
+    private static final long CLAIM_MS = 10 * 60 * 1000L;
+
+    private static boolean running;
+
+    private RemarksMigrator() { }
+
+    /** Starts (or resumes) the migration unless it is done, or running here or on another client. */
+    static synchronized void runIfNeeded() {
+        if (running) return;
+        running = true;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        long now = System.currentTimeMillis();
+        root.child(CHECKPOINT).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                if (Boolean.TRUE.equals(current.child("done").getValue(Boolean.class))) return Transaction.abort();
+                Long claimedAt = current.child("claimedAt").getValue(Long.class);
+                if (claimedAt != null && now - claimedAt < CLAIM_MS) return Transaction.abort();
+                current.child("claimedAt").setValue(now);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot checkpoint) {
+                if (error != null || !committed || checkpoint == null) finish();
+                else migrateChunk(root, checkpoint.child("cursor").getValue(String.class), false);
+            }
+        });
+    }
+
+    private static synchronized void finish() {
+        running = false;
+    }
+
+    /** leftBehind: an earlier chunk of this run had a document change under it. */
+    private static void migrateChunk(DatabaseReference root, String cursor, boolean leftBehind) {
+        Query chunk = root.child(DbKeys.DOCUMENTS).orderByKey();
+        if (cursor != null) chunk = chunk.startAfter(cursor);
+
+        chunk.limitToFirst(CHUNK_SIZE).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                finish();
+                return;
+            }
+
+            List<DataSnapshot> pending = new ArrayList<>();
+            String last = cursor;
+            long count = 0;
+            for (DataSnapshot docSnap : task.getResult().getChildren()) {
+                if (needsMigration(docSnap)) pending.add(docSnap);
+                last = docSnap.getKey();
+                count++;
+            }
+            boolean end = count < CHUNK_SIZE;
+            String next = last;
+
+            migrateDocuments(root, pending, (migrated, changed) -> {
+                boolean retryLater = leftBehind || changed > 0;
+                Map<String, Object> updates = new HashMap<>();
+                // Documents that changed mid-run are still legacy: start over next time instead of finishing
+                updates.put(CHECKPOINT + "/cursor", end ? null : next);
+                updates.put(CHECKPOINT + "/migrated", ServerValue.increment(migrated));
+                updates.put(CHECKPOINT + "/updatedAt", ServerValue.TIMESTAMP);
+                updates.put(CHECKPOINT + "/claimedAt", end ? null : System.currentTimeMillis());
+                if (end && !retryLater) updates.put(CHECKPOINT + "/done", true);
+
+                root.updateChildren(updates).addOnCompleteListener(write -> {
+                    if (write.isSuccessful() && !end) migrateChunk(root, next, retryLater);
+                    else finish();
+                });
+            });
+        });
+    }
+
+    private interface ChunkCallback {
+        /** migrated: documents this run moved over; changed: ones left legacy because they moved meanwhile. */
+        void onDone(long migrated, long changed);
+    }
+
+    private static void migrateDocuments(DatabaseReference root, List<DataSnapshot> docs, ChunkCallback callback) {
+        if (docs.isEmpty()) {
+            callback.onDone(0, 0);
+            return;
+        }
+        long[] migrated = {0};
+        long[] changed = {0};
+        int[] remaining = {docs.size()};
+        for (DataSnapshot docSnap : docs) {
+            migrateDocument(root, docSnap, outcome -> {
+                if (outcome == Boolean.TRUE) migrated[0]++;
+                else if (outcome == Boolean.FALSE) changed[0]++;
+                if (--remaining[0] == 0) callback.onDone(migrated[0], changed[0]);
+            });
+        }
+    }
+
+    private interface DocumentCallback {
+        /** TRUE migrated here, FALSE changed since the read (left legacy), null failed or gone. */
+        void onDone(@Nullable Boolean outcome);
+    }
+
+    /** Legacy documents carry inline remarks, or lack the summary or state node. */
+    private static boolean needsMigration(DataSnapshot docSnap) {
+        return docSnap.child("remarks").exists() || !docSnap.child("summary").exists()
+                || !docSnap.child(ApprovalTransition.STATE).exists();
+    }
+
+    /**
+     * Copies outside the document first (all keyed, so a repeat or a race just rewrites them),
+     * then each node of the document it changes, in order: state, summary, and last the inline
+     * remarks, so the decoder keeps reading them until the summary is in place.
+     */
+    private static void migrateDocument(DatabaseReference root, DataSnapshot docSnap, DocumentCallback callback) {
+        DocumentRecord doc = DocumentDecoder.decode(docSnap.getKey(), docSnap.getValue());
+        if (doc == null) {
+            callback.onDone(null);
+            return;
+        }
+        Map<String, Object> outside = new HashMap<>();
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        planDocument(docSnap, doc, outside, nodes);
+
+        root.updateChildren(outside).addOnCompleteListener(copied -> {
+            if (!copied.isSuccessful()) callback.onDone(null);
+            else setNodes(root.child(DbKeys.DOCUMENTS).child(docSnap.getKey()), docSnap,
+                    new ArrayList<>(nodes.entrySet()), 0, callback);
+        });
+    }
+
+    private static void setNodes(DatabaseReference docRef, DataSnapshot docSnap, List<Map.Entry<String, Object>> nodes,
+                                 int next, DocumentCallback callback) {
+        if (next == nodes.size()) {
+            callback.onDone(Boolean.TRUE);
+            return;
+        }
+        String node = nodes.get(next).getKey();
+        Object asRead = docSnap.child(node).getValue();
+        Object value = nodes.get(next).getValue();
+        boolean[] applied = {false};
+        docRef.child(node).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                Object now = current.getValue();
+                applied[0] = false;
+                // Nothing cached locally yet: change nothing, the server value comes back for another try
+                if (now == null && asRead != null) return Transaction.success(current);
+                if (now != null && !now.equals(asRead)) return Transaction.abort();
+                current.setValue(value);
+                applied[0] = true;
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                if (error != null) callback.onDone(null);
+                else if (!committed) callback.onDone(Boolean.FALSE);
+                // Gone on the server too: another run (or a delete) got there first
+                else if (!applied[0]) callback.onDone(null);
+                else setNodes(docRef, docSnap, nodes, next + 1, callback);
+            }
+        });
+    }
+
+    /**
+     * The writes that bring one document up to the split schema: outside holds root paths,
+     * nodes the new value of each child of documents/{id} to change, in the order to write them.
+     */
+    private static void planDocument(DataSnapshot docSnap, DocumentRecord doc, Map<String, Object> outside,
+                                     Map<String, Object> nodes) {
+        String docId = docSnap.getKey();
+        DataSnapshot remarksSnap = docSnap.child("remarks");
+
+        // 🔹 Remarks -> flat feed (same keys the app writes, so dual-written remarks just overwrite)
+        long lastResubmittedAt = 0L;
+        for (DataSnapshot roleSnap : remarksSnap.getChildren()) {
+            String roleKey = roleSnap.getKey();
+            if (roleKey == null) continue;
+
+            if (roleKey.startsWith("system_")) {
+                RemarkRecord remark = DocumentDecoder.decodeRemark(RemarkRecord.SYSTEM, roleSnap.getValue());
+                outside.put(DbKeys.remarkPath(docId, roleKey), remarkData(remark));
+                if ("Resubmitted".equalsIgnoreCase(remark.getStatus()) && remark.getTime() > lastResubmittedAt) {
+                    lastResubmittedAt = remark.getTime();
+                }
+            } else {
+                for (DataSnapshot timeSnap : roleSnap.getChildren()) {
+                    outside.put(DbKeys.remarkPath(docId, DbKeys.remarkKey(roleKey, timeSnap.getKey())),
+                            remarkData(DocumentDecoder.decodeRemark(roleKey, timeSnap.getValue())));
+                }
+            }
+        }
+
+        int index = doc.getCurrentApproverIndex();
+        String status = doc.getStatus();
+
+        // 🔹 Transition state for ApprovalTransition, stamped like every other state write so
+        //    StatsReconciler sees the document move (the transaction resolves the server time)
+        if (!docSnap.child(ApprovalTransition.STATE).exists() && status != null) {
+            Map<String, Object> state = new HashMap<>();
+            state.put("index", index);
+            state.put("status", status);
+            state.put("chainVersion", 0);
+            state.put(ApprovalTransition.WRITTEN_AT, ServerValue.TIMESTAMP);
+            nodes.put(ApprovalTransition.STATE, state);
+        }
+
+        // 🔹 Summary: latest resubmission and each approver's last decision since it. A summary
+        //    the app already started only gains the approvers it has no entry for yet (decided
+        //    inline before it existed; VisibilityRules falls back to the remarks for those)
+        if (doc.hasSummary()) lastResubmittedAt = Math.max(lastResubmittedAt, doc.getLastResubmittedAt());
+        Map<String, RemarkRecord> lastDecision = new HashMap<>();
+        for (RemarkRecord remark : doc.getRemarks()) {
+            String decision = remark.getStatus();
+            if (remark.isSystem() || decision == null || remark.getTime() <= lastResubmittedAt) continue;
+            if (!decision.equalsIgnoreCase("Approved") && !decision.equalsIgnoreCase("Rejected")) continue;
+            if (doc.getActions().containsKey(remark.getBy())) continue;
+            RemarkRecord previous = lastDecision.get(remark.getBy());
+            if (previous == null || remark.getTime() >= previous.getTime()) lastDecision.put(remark.getBy(), remark);
+        }
+        if (!doc.hasSummary() || !lastDecision.isEmpty()) {
+            Map<String, Object> summary = new HashMap<>();
+            Object existing = docSnap.child("summary").getValue();
+            if (existing instanceof Map) {
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) existing).entrySet()) {
+                    summary.put(String.valueOf(e.getKey()), e.getValue());
+                }
+            } else {
+                summary.put("lastResubmittedAt", lastResubmittedAt);
+            }
+            Map<String, Object> actions = new HashMap<>();
+            Object existingActions = summary.get("actions");
+            if (existingActions instanceof Map) {
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) existingActions).entrySet()) {
+                    actions.put(String.valueOf(e.getKey()), e.getValue());
+                }
+            }
+            for (RemarkRecord decision : lastDecision.values()) {
+                Map<String, Object> action = new HashMap<>();
+                action.put("status", decision.getStatus());
+                action.put("time", decision.getTime());
+                actions.put(decision.getBy(), action);
+            }
+            summary.put("actions", actions);
+            nodes.put("summary", summary);
+        }
+
+        // 🔹 Inboxes: every approver the document has reached so far
+        List<String> chain = doc.getApproverChain();
+        for (int i = 0; i <= index && i < chain.size(); i++) {
+            outside.put(DbKeys.inboxPath(chain.get(i), docId), doc.getUpdatedAt());
+        }
+
+        // 🔹 studentDocs index
+        if (doc.getStudentId() != null && doc.getDocumentType() != null) {
+            outside.put(DbKeys.studentDocPath(doc.getStudentId(), doc.getDocumentType()), docId);
+        }
+
+        // 🔹 Finally the cold data leaves the hot document
+        if (remarksSnap.exists()) nodes.put("remarks", null);
+    }
+
+    private static Map<String, Object> remarkData(RemarkRecord remarkRecord) {
+        Map<String, Object> remark = new HashMap<>();
+        remark.put("by", remarkRecord.getBy());
+        remark.put("status", remarkRecord.getStatus());
+        remark.put("comment", remarkRecord.getComment());
+        remark.put("time", remarkRecord.getTime());
+        return remark;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.dts;
+
+import com.example.dts.core.DocumentRepository;
+
+/** The DocumentRepository screens use; Firebase unless a test or load run swaps it. */
+final class Repositories {
+
+    private static DocumentRepository documents;
+
+    private Repositories() { }
+
+    static synchronized DocumentRepository documents() {
+        // Created lazily: FirebaseDatabase must not be touched before DtsApplication enables persistence
+        if (documents == null) documents = new FirebaseDocumentRepository();
+        return documents;
+    }
+
+    static synchronized void setDocuments(DocumentRepository repository) {
+        documents = repository;
+    }
+}
@@ -12,34 +12,125 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-public class RequestAdapter extends RecyclerView.Adapter<RequestAdapter.ViewHolder> {
+public class RequestAdapter extends ListAdapter<RequestModel, RequestAdapter.ViewHolder> {
 
-    private final List<RequestModel> requests;
     private final boolean isStudentDashboard;
 
-    private final DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference();
-    private final FirebaseAuth mAuth = FirebaseAuth.getInstance();
+    // Row key -> stable item id; keys are docIds (admin) or document types (student)
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    // Admin multi-select: docIds picked for a bulk approve/reject, in the order they were picked
+    public interface SelectionListener {
+        void onSelectionChanged(int count);
+    }
+
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+    private SelectionListener selectionListener;
 
     // Constructor for Admin
-    public RequestAdapter(List<RequestModel> requests) {
-        this.requests = requests;
-        this.isStudentDashboard = false;
+    public RequestAdapter() {
+        this(false);
     }
 
     // Constructor for Student
-    public RequestAdapter(List<RequestModel> requests, boolean isStudentDashboard) {
-        this.requests = requests;
+    public RequestAdapter(boolean isStudentDashboard) {
+        super(isStudentDashboard ? STUDENT_DIFF : ADMIN_DIFF);
         this.isStudentDashboard = isStudentDashboard;
+        setHasStableIds(true);
+    }
+
+    // Admin rows are one document each; student rows are one document type each (id is empty until submitted)
+    private static final DiffUtil.ItemCallback<RequestModel> ADMIN_DIFF = new RowDiff() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RequestModel a, @NonNull RequestModel b) {
+            return Objects.equals(a.getId(), b.getId());
+        }
+    };
+
+    private static final DiffUtil.ItemCallback<RequestModel> STUDENT_DIFF = new RowDiff() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RequestModel a, @NonNull RequestModel b) {
+            return Objects.equals(a.getName(), b.getName());
+        }
+    };
+
+    private abstract static class RowDiff extends DiffUtil.ItemCallback<RequestModel> {
+        @Override
+        public boolean areContentsTheSame(@NonNull RequestModel a, @NonNull RequestModel b) {
+            return Objects.equals(a.getId(), b.getId())
+                    && Objects.equals(a.getName(), b.getName())
+                    && Objects.equals(a.getStatus(), b.getStatus())
+                    && Objects.equals(a.getStudentName(), b.getStudentName())
+                    && Objects.equals(a.getStudentUserId(), b.getStudentUserId())
+                    && Objects.equals(a.getApproverStatus(), b.getApproverStatus())
+                    && a.getCreatedAt() == b.getCreatedAt()
+                    && a.isCanAct() == b.isCanAct()
+                    && a.isMyTurn() == b.isMyTurn()
+                    // The bound row hands these to AdminActionDialog as the state the approver acts on
+                    && a.getChainVersion() == b.getChainVersion()
+                    && a.getApproverIndex() == b.getApproverIndex();
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        RequestModel req = getItem(position);
+        String key = isStudentDashboard ? req.getName() : req.getId();
+        Long id = stableIds.get(key);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(key, id);
+        }
+        return id;
+    }
+
+    public void setSelectionListener(SelectionListener listener) {
+        this.selectionListener = listener;
+    }
+
+    public List<String> getSelectedIds() {
+        return new ArrayList<>(selectedIds);
+    }
+
+    public void clearSelection() {
+        if (selectedIds.isEmpty()) return;
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount());
+        if (selectionListener != null) selectionListener.onSelectionChanged(0);
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<RequestModel> previousList, @NonNull List<RequestModel> currentList) {
+        if (selectedIds.isEmpty()) return;
+        // Rows that left the list, or that this admin can no longer act on, drop out of the selection
+        Set<String> stillActionable = new HashSet<>();
+        for (RequestModel req : currentList) {
+            if (req.isCanAct()) stillActionable.add(req.getId());
+        }
+        if (selectedIds.retainAll(stillActionable) && selectionListener != null) {
+            selectionListener.onSelectionChanged(selectedIds.size());
+        }
+    }
+
+    private void toggleSelection(RequestModel req, ViewHolder holder) {
+        if (!selectedIds.remove(req.getId())) selectedIds.add(req.getId());
+        int position = holder.getBindingAdapterPosition();
+        if (position != RecyclerView.NO_POSITION) notifyItemChanged(position);
+        if (selectionListener != null) selectionListener.onSelectionChanged(selectedIds.size());
     }
 
     @NonNull
@@ -52,7 +143,7 @@ public class RequestAdapter extends RecyclerView.Adapter<RequestAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        RequestModel req = requests.get(position);
+        RequestModel req = getItem(position);
         Context ctx = holder.itemView.getContext();
 
         holder.tvName.setText(req.getName());
@@ -82,113 +173,82 @@ public class RequestAdapter extends RecyclerView.Adapter<RequestAdapter.ViewHold
             holder.tvStudent.setVisibility(View.VISIBLE);
             holder.tvSubmitted.setVisibility(View.VISIBLE);
 
-            dbRef.child("documents").child(req.getId()).get().addOnSuccessListener(snap -> {
-                if (!snap.exists()) return;
-
-                String studentId = snap.child("studentId").getValue(String.class);
-                Long createdAt = snap.child("createdAt").getValue(Long.class);
-
-                // Submission time
-                if (createdAt != null) {
-                    String formattedTime = DateFormat.format("dd MMM yyyy, hh:mm a", createdAt).toString();
-                    holder.tvSubmitted.setText("Submitted: " + formattedTime);
-                } else {
-                    holder.tvSubmitted.setText("");
+            // All row data is resolved by the dashboard before it reaches the adapter — no I/O here
+            if (req.getCreatedAt() > 0) {
+                String formattedTime = DateFormat.format("dd MMM yyyy, hh:mm a", req.getCreatedAt()).toString();
+                holder.tvSubmitted.setText("Submitted: " + formattedTime);
+            } else {
+                holder.tvSubmitted.setText("");
+            }
+
+            String studentName = req.getStudentName();
+            if (studentName == null || studentName.isEmpty())
+                studentName = "Unknown Student";
+
+            String studentUserId = req.getStudentUserId();
+            if (studentUserId != null && !studentUserId.isEmpty()) {
+                holder.tvStudent.setText(Html.fromHtml("From: <b>" + studentName + "</b> <font color='#6B7280'>(" + studentUserId + ")</font>"));
+            } else {
+                holder.tvStudent.setText("From: " + studentName);
+            }
+
+            // ✅ Per-approver status (ignore comments entirely)
+            String approverStatus = req.getApproverStatus();
+            if (approverStatus != null) {
+                holder.tvStatus.setText("Status: " + approverStatus);
+                if (approverStatus.equalsIgnoreCase("Approved")) {
+                    holder.tvStatus.setTextColor(ctx.getColor(R.color.green_500));
+                } else if (approverStatus.equalsIgnoreCase("Rejected")) {
+                    holder.tvStatus.setTextColor(ctx.getColor(R.color.red_500));
+                } else if (approverStatus.equalsIgnoreCase("Pending")) {
+                    holder.tvStatus.setTextColor(ctx.getColor(R.color.orange_500));
                 }
+            }
 
-                // Fetch student name + userId
-                if (studentId != null) {
-                    dbRef.child("users").child(studentId).get()
-                            .addOnSuccessListener(userSnap -> {
-                                if (userSnap.exists()) {
-                                    String studentName = userSnap.child("name").getValue(String.class);
-                                    String studentUserId = userSnap.child("userId").getValue(String.class);
-
-                                    if (studentName == null || studentName.isEmpty())
-                                        studentName = "Unknown Student";
-
-                                    if (studentUserId != null && !studentUserId.isEmpty()) {
-                                        holder.tvStudent.setText(Html.fromHtml("From: <b>" + studentName + "</b> <font color='#6B7280'>(" + studentUserId + ")</font>"));
-                                    } else {
-                                        holder.tvStudent.setText("From: " + studentName);
-                                    }
-                                } else {
-                                    holder.tvStudent.setText("From: Unknown Student");
-                                }
-                            });
-                } else {
-                    holder.tvStudent.setText("From: Unknown Student");
-                }
+            // ☑️ Selected rows are tinted while picking requests for a bulk action
+            ((CardView) holder.itemView).setCardBackgroundColor(ctx.getColor(
+                    selectedIds.contains(req.getId()) ? R.color.dts_blue_100 : R.color.white));
 
-                // ✅ Get per-approver status (ignore comments entirely)
-                String currentEmail = (mAuth.getCurrentUser() != null)
-                        ? mAuth.getCurrentUser().getEmail()
-                        : null;
-
-                if (currentEmail != null) {
-                    String emailKey = currentEmail.replace("@", "_").replace(".", "_").toLowerCase();
-                    String approverStatus = snap.child("approvalStatus").child(emailKey).getValue(String.class);
-
-                    if (approverStatus != null) {
-                        holder.tvStatus.setText("Status: " + approverStatus);
-                        if (approverStatus.equalsIgnoreCase("Approved")) {
-                            holder.tvStatus.setTextColor(ctx.getColor(R.color.green_500));
-                        } else if (approverStatus.equalsIgnoreCase("Rejected")) {
-                            holder.tvStatus.setTextColor(ctx.getColor(R.color.red_500));
-                        } else if (approverStatus.equalsIgnoreCase("Pending")) {
-                            holder.tvStatus.setTextColor(ctx.getColor(R.color.orange_500));
-                        }
-                    }
-                }
+            // Long-press starts (or extends) a multi-select of requests waiting on this admin
+            holder.itemView.setOnLongClickListener(v -> {
+                if (!req.isCanAct()) return false;
+                toggleSelection(req, holder);
+                return true;
             });
 
             // ---------- Handle admin item click ----------
             holder.itemView.setOnClickListener(v -> {
-                String currentUserEmail = (mAuth.getCurrentUser() != null)
-                        ? mAuth.getCurrentUser().getEmail()
-                        : null;
-                if (currentUserEmail == null) return;
-
-                dbRef.child("documents").child(req.getId()).get().addOnSuccessListener(snapshot -> {
-                    if (!snapshot.exists()) return;
-
-                    List<String> chain = new ArrayList<>();
-                    for (DataSnapshot c : snapshot.child("approverChain").getChildren()) {
-                        String val = c.getValue(String.class);
-                        if (val != null) chain.add(val.trim().toLowerCase());
-                    }
-
-                    Long indexLong = snapshot.child("currentApproverIndex").getValue(Long.class);
-                    int index = (indexLong != null) ? indexLong.intValue() : 0;
-
-                    // ✅ Check if this admin is the current approver
-                    if (index < chain.size() &&
-                            currentUserEmail.trim().toLowerCase().equals(chain.get(index))) {
-
-                        String currentEmailKey = currentUserEmail.replace("@", "_").replace(".", "_").toLowerCase();
-                        String approverStatus = snapshot.child("approvalStatus").child(currentEmailKey).getValue(String.class);
-
-                        // Allow action only if pending
-                        if (approverStatus != null && approverStatus.equalsIgnoreCase("Pending")) {
-                            AdminActionDialog dialog = new AdminActionDialog(
-                                    req.getId(),
-                                    req.getName(),
-                                    req.getStatus()
-                            );
-                            dialog.show(((AppCompatActivity) v.getContext()).getSupportFragmentManager(),
-                                    "AdminActionDialog");
-                        } else {
-                            Toast.makeText(v.getContext(),
-                                    "You’ve already taken action on this request.",
-                                    Toast.LENGTH_SHORT).show();
-                        }
-
+                if (!selectedIds.isEmpty()) {
+                    if (req.isCanAct()) {
+                        toggleSelection(req, holder);
                     } else {
                         Toast.makeText(v.getContext(),
-                                "You’re not the current approver for this request.",
+                                "Only requests waiting on you can be selected.",
                                 Toast.LENGTH_SHORT).show();
                     }
-                });
+                    return;
+                }
+
+                // ✅ Allow action only if this admin is the current approver and still pending
+                if (req.isCanAct()) {
+                    AdminActionDialog dialog = new AdminActionDialog(
+                            req.getId(),
+                            req.getName(),
+                            req.getStatus(),
+                            req.getChainVersion(),
+                            req.getApproverIndex()
+                    );
+                    dialog.show(((AppCompatActivity) v.getContext()).getSupportFragmentManager(),
+                            "AdminActionDialog");
+                } else if (req.isMyTurn()) {
+                    Toast.makeText(v.getContext(),
+                            "You’ve already taken action on this request.",
+                            Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(v.getContext(),
+                            "You’re not the current approver for this request.",
+                            Toast.LENGTH_SHORT).show();
+                }
             });
 
         }
@@ -209,11 +269,6 @@ public class RequestAdapter extends RecyclerView.Adapter<RequestAdapter.ViewHold
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return requests.size();
-    }
-
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvName, tvStatus, tvStudent, tvSubmitted, tvCommentTag;
 
@@ -0,0 +1,180 @@
+package com.example.dts;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Search + status-chip filtering shared by both dashboards.
+ * Rows and the search index live on one background thread; queries are debounced
+ * and results are posted back to the main thread as a fresh list for the adapter to diff.
+ */
+final class RequestFilter {
+
+    interface KeyFunction {
+        String keyOf(RequestModel row);
+    }
+
+    interface Callback {
+        void onFiltered(List<RequestModel> rows);
+    }
+
+    private static final long QUERY_DEBOUNCE_MS = 150;
+    private static final long DATA_DEBOUNCE_MS = 50;
+
+    private final KeyFunction keyFunction;
+    private final Callback callback;
+    private final boolean sortedByKey;
+    private final boolean exactStatus;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable runQuery = this::scheduleQuery;
+
+    // Worker-thread state
+    private final Map<String, RequestModel> rows;
+    private final Map<String, String> statusByKey = new HashMap<>();
+    private final SearchIndex nameIndex = new SearchIndex();
+
+    // Main-thread state
+    private String searchText = "";
+    private String statusFilter = "All";
+    private int generation;
+    private boolean shutdown;
+
+    /**
+     * sortedByKey: results in key order (docIds sort by submission); otherwise insertion order.
+     * exactStatus: the chip matches the whole status; otherwise any status containing it
+     * ("Approved (You)" under Approved).
+     */
+    RequestFilter(boolean sortedByKey, boolean exactStatus, KeyFunction keyFunction, Callback callback) {
+        this.sortedByKey = sortedByKey;
+        this.exactStatus = exactStatus;
+        this.keyFunction = keyFunction;
+        this.callback = callback;
+        this.rows = sortedByKey ? new TreeMap<>() : new LinkedHashMap<>();
+    }
+
+    /** Called on the main thread whenever the search box or chip changes. */
+    void setQuery(String searchText, String statusFilter) {
+        this.searchText = searchText != null ? searchText : "";
+        this.statusFilter = statusFilter;
+        requery(QUERY_DEBOUNCE_MS);
+    }
+
+    void upsert(RequestModel row) {
+        String key = keyFunction.keyOf(row);
+        execute(() -> {
+            rows.put(key, row);
+            statusByKey.put(key, SearchIndex.normalize(row.getStatus()));
+            nameIndex.put(key, row.getName());
+        });
+        requery(DATA_DEBOUNCE_MS);
+    }
+
+    void remove(String key) {
+        execute(() -> {
+            rows.remove(key);
+            statusByKey.remove(key);
+            nameIndex.remove(key);
+        });
+        requery(DATA_DEBOUNCE_MS);
+    }
+
+    /** Replaces every row; unchanged rows keep their index entries. */
+    void replaceAll(List<RequestModel> newRows) {
+        List<RequestModel> copy = new ArrayList<>(newRows);
+        execute(() -> {
+            Map<String, RequestModel> incoming = new LinkedHashMap<>();
+            for (RequestModel row : copy) incoming.put(keyFunction.keyOf(row), row);
+            for (String key : new ArrayList<>(rows.keySet())) {
+                if (!incoming.containsKey(key)) {
+                    rows.remove(key);
+                    statusByKey.remove(key);
+                    nameIndex.remove(key);
+                }
+            }
+            if (!sortedByKey) rows.clear(); // keep the caller's order
+            for (Map.Entry<String, RequestModel> e : incoming.entrySet()) {
+                rows.put(e.getKey(), e.getValue());
+                statusByKey.put(e.getKey(), SearchIndex.normalize(e.getValue().getStatus()));
+                nameIndex.put(e.getKey(), e.getValue().getName());
+            }
+        });
+        requery(DATA_DEBOUNCE_MS);
+    }
+
+    void shutdown() {
+        shutdown = true;
+        mainHandler.removeCallbacks(runQuery);
+        worker.shutdownNow();
+    }
+
+    /** Late data callbacks (a listener firing after onDestroy) are dropped once the worker is gone. */
+    private void execute(Runnable task) {
+        if (shutdown) return;
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down in between; nothing left to filter for
+        }
+    }
+
+    private void requery(long delayMs) {
+        if (shutdown) return;
+        mainHandler.removeCallbacks(runQuery);
+        mainHandler.postDelayed(runQuery, delayMs);
+    }
+
+    private void scheduleQuery() {
+        if (shutdown) return;
+        int gen = ++generation;
+        String text = searchText;
+        String status = SearchIndex.normalize(statusFilter);
+        execute(() -> {
+            List<RequestModel> result = filter(text, status);
+            mainHandler.post(() -> {
+                // Drop results that a newer query has already superseded
+                if (!shutdown && gen == generation) callback.onFiltered(result);
+            });
+        });
+    }
+
+    private List<RequestModel> filter(String text, String status) {
+        boolean allStatuses = status.equals("all");
+        Set<String> matches = nameIndex.search(text);
+
+        List<RequestModel> result = new ArrayList<>();
+        if (matches != null && sortedByKey) {
+            List<String> keys = new ArrayList<>(matches);
+            Collections.sort(keys);
+            for (String key : keys) {
+                if (allStatuses || matchesStatus(key, status)) result.add(rows.get(key));
+            }
+            return result;
+        }
+
+        for (Map.Entry<String, RequestModel> e : rows.entrySet()) {
+            String key = e.getKey();
+            if (matches != null && !matches.contains(key)) continue;
+            if (allStatuses || matchesStatus(key, status)) result.add(e.getValue());
+        }
+        return result;
+    }
+
+    private boolean matchesStatus(String key, String status) {
+        String rowStatus = statusByKey.get(key);
+        return exactStatus ? rowStatus.equalsIgnoreCase(status) : rowStatus.contains(status);
+    }
+}
@@ -7,6 +7,12 @@ public class RequestModel {
     private String studentName;   // NEW
     private long createdAt;       // NEW (epoch millis)
     private boolean canAct;       // NEW (admin is current approver & status Pending)
+    private boolean myTurn;       // admin is at currentApproverIndex (regardless of own status)
+    private String studentId;     // users/{studentId}
+    private String studentUserId; // college ID shown next to the name
+    private String approverStatus; // approvalStatus/{adminKey}, null if absent
+    private long chainVersion = -1; // state/chainVersion as shown; an action from this row is checked against it
+    private int approverIndex = -1; // currentApproverIndex as shown
 
     public RequestModel() { }
 
@@ -32,9 +38,21 @@ public class RequestModel {
     public String getStudentName() { return studentName; }
     public long getCreatedAt() { return createdAt; }
     public boolean isCanAct() { return canAct; }
+    public boolean isMyTurn() { return myTurn; }
+    public String getStudentId() { return studentId; }
+    public String getStudentUserId() { return studentUserId; }
+    public String getApproverStatus() { return approverStatus; }
+    public long getChainVersion() { return chainVersion; }
+    public int getApproverIndex() { return approverIndex; }
 
     public void setStatus(String status) { this.status = status; }
     public void setStudentName(String studentName) { this.studentName = studentName; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
     public void setCanAct(boolean canAct) { this.canAct = canAct; }
+    public void setMyTurn(boolean myTurn) { this.myTurn = myTurn; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+    public void setStudentUserId(String studentUserId) { this.studentUserId = studentUserId; }
+    public void setApproverStatus(String approverStatus) { this.approverStatus = approverStatus; }
+    public void setChainVersion(long chainVersion) { this.chainVersion = chainVersion; }
+    public void setApproverIndex(int approverIndex) { this.approverIndex = approverIndex; }
 }
@@ -0,0 +1,36 @@
+package com.example.dts;
+
+/**
+ * Display names for approver email keys ("dtshod_dts_com" -> "HOD"). roleNames/ in the flow
+ * catalog decides; the built-in names only cover a catalog that hasn't loaded or doesn't name a key.
+ */
+final class RoleNames {
+
+    private RoleNames() { }
+
+    static String readable(String roleKey) {
+        if (roleKey == null) return "-";
+        String name = FlowCatalog.getInstance().displayName(roleKey);
+        if (name != null) return name;
+        switch (roleKey.toLowerCase()) {
+            case "faculty_dts_com": return "Faculty";
+            case "dtshod_dts_com": return "HOD";
+            case "accounts_dts_com": return "Accounts";
+            case "hostelwarden_dts_com": return "Hostel Warden";
+            case "messsupervisor_dts_com": return "Mess Supervisor";
+            case "librarian_dts_com": return "Librarian";
+            case "placement_dts_com": return "Placement Cell";
+            case "academic_dts_com": return "Academic Section";
+            case "scholarship_dts_com": return "Scholarship Officer";
+            default:
+                String[] parts = roleKey.split("_");
+                StringBuilder sb = new StringBuilder();
+                for (String p : parts) {
+                    if (!p.equals("dts") && !p.equals("com") && !p.isEmpty()) {
+                        sb.append(Character.toUpperCase(p.charAt(0))).append(p.substring(1)).append(" ");
+                    }
+                }
+                return sb.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.dts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Substring index over pre-lowercased row text.
+ * Queries of 3+ chars are answered from trigram postings (then verified);
+ * shorter queries fall back to a scan of the normalized strings. Not thread-safe.
+ */
+final class SearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<String, String> textByKey = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Adds or re-indexes key; only grams that actually changed are touched. */
+    void put(String key, String text) {
+        String normalized = normalize(text);
+        String old = textByKey.put(key, normalized);
+        if (normalized.equals(old)) return;
+
+        Set<String> oldGrams = old != null ? grams(old) : new HashSet<>();
+        Set<String> newGrams = grams(normalized);
+        for (String g : oldGrams) {
+            if (!newGrams.contains(g)) unpost(g, key);
+        }
+        for (String g : newGrams) {
+            if (!oldGrams.contains(g)) post(g, key);
+        }
+    }
+
+    void remove(String key) {
+        String old = textByKey.remove(key);
+        if (old == null) return;
+        for (String g : grams(old)) unpost(g, key);
+    }
+
+    void clear() {
+        textByKey.clear();
+        postings.clear();
+    }
+
+    /** Pre-lowercased text for key, or null if not indexed. */
+    String text(String key) {
+        return textByKey.get(key);
+    }
+
+    /**
+     * Keys whose text contains the (normalized) query, or null meaning "every key"
+     * for an empty query.
+     */
+    Set<String> search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) return null;
+
+        Set<String> result = new HashSet<>();
+        if (q.length() < GRAM) {
+            for (Map.Entry<String, String> e : textByKey.entrySet()) {
+                if (e.getValue().contains(q)) result.add(e.getKey());
+            }
+            return result;
+        }
+
+        // Intersect postings starting from the rarest gram, then verify the full substring
+        List<Set<String>> lists = new ArrayList<>();
+        for (String g : grams(q)) {
+            Set<String> p = postings.get(g);
+            if (p == null) return result;
+            lists.add(p);
+        }
+        Set<String> smallest = lists.get(0);
+        for (Set<String> p : lists) {
+            if (p.size() < smallest.size()) smallest = p;
+        }
+        outer:
+        for (String key : smallest) {
+            for (Set<String> p : lists) {
+                if (p != smallest && !p.contains(key)) continue outer;
+            }
+            if (textByKey.get(key).contains(q)) result.add(key);
+        }
+        return result;
+    }
+
+    private void post(String gram, String key) {
+        Set<String> p = postings.get(gram);
+        if (p == null) {
+            p = new HashSet<>();
+            postings.put(gram, p);
+        }
+        p.add(key);
+    }
+
+    private void unpost(String gram, String key) {
+        Set<String> p = postings.get(gram);
+        if (p == null) return;
+        p.remove(key);
+        if (p.isEmpty()) postings.remove(gram);
+    }
+
+    private static Set<String> grams(String s) {
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            out.add(s.substring(i, i + GRAM));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.dts;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+/**
+ * Cold-start timing. Marks are logged under the "DtsStartup" tag as milliseconds since the
+ * process started, and show up as trace sections in Perfetto / systrace. The first list a
+ * dashboard shows also calls reportFullyDrawn(), so "Fully drawn" in logcat and
+ * time-to-full-display in macrobenchmarks measure launch -> meaningful list.
+ */
+final class StartupTrace {
+
+    private static final String TAG = "DtsStartup";
+
+    private static boolean fullyDrawnReported;
+
+    private StartupTrace() { }
+
+    static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+
+    static void begin(String section) {
+        Trace.beginSection(section);
+    }
+
+    static void end() {
+        Trace.endSection();
+    }
+
+    static void mark(String event) {
+        Log.i(TAG, event + " at +" + sinceProcessStart() + "ms");
+    }
+
+    /** Once per process: the first dashboard list reached the screen. */
+    static void firstListShown(Activity activity, String source) {
+        if (fullyDrawnReported) return;
+        fullyDrawnReported = true;
+        mark("first list (" + source + ")");
+        activity.reportFullyDrawn();
+    }
+}
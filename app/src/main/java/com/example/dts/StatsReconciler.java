@@ -0,0 +1,208 @@
+package com.example.dts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.StatusCounters;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repairs drift in the stats/ counters (a write that skipped them). At most once a day, one
+ * client claims the run at migrations/reconcileStats, recounts every document by key in chunks
+ * (StatusCounters.recount) and writes the difference as increments.
+ *
+ * A write landing mid-scan would be "corrected" against a stale recount, so those owners are
+ * left for the next run: every owner a document counted for is skipped when its state was
+ * written after the scan started (state/writtenAt, a server timestamp), and so is any counter
+ * that moved between the reads before and after the scan.
+ */
+final class StatsReconciler {
+
+    static final String CHECKPOINT = "migrations/reconcileStats";
+    private static final long INTERVAL_MS = 24 * 60 * 60 * 1000L;
+    private static final int CHUNK_SIZE = 100;
+
+    private static boolean running;
+
+    private StatsReconciler() { }
+
+    /** Starts a reconciliation if none ran (or was claimed) in the last day and none runs in this process. */
+    static synchronized void runIfDue() {
+        if (running) return;
+        running = true;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        long now = System.currentTimeMillis();
+        root.child(CHECKPOINT).child("claimedAt").runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                Long claimedAt = current.getValue(Long.class);
+                if (claimedAt != null && now - claimedAt < INTERVAL_MS) return Transaction.abort();
+                current.setValue(now);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                if (error != null || !committed) {
+                    finish();
+                    return;
+                }
+                // Server time the scan starts at; the counters are read after it, so any write they
+                // miss is one stamped later than this
+                DatabaseReference startedAt = root.child(CHECKPOINT).child("scanStartedAt");
+                startedAt.setValue(ServerValue.TIMESTAMP)
+                        .continueWithTask(stamped -> startedAt.get())
+                        .addOnCompleteListener(stamp -> {
+                            Long scanStartedAt = stamp.isSuccessful() ? stamp.getResult().getValue(Long.class) : null;
+                            if (scanStartedAt == null) {
+                                finish();
+                                return;
+                            }
+                            root.child(DbKeys.STATS).get().addOnCompleteListener(task -> {
+                                if (!task.isSuccessful()) finish();
+                                else recountChunk(root, new Scan(scanStartedAt, flatten(task.getResult())), null);
+                            });
+                        });
+            }
+        });
+    }
+
+    private static synchronized void finish() {
+        running = false;
+    }
+
+    /** What one run has gathered so far. */
+    private static final class Scan {
+        final long startedAt;
+        final Map<String, Long> before;
+        final Map<String, Long> recount = new HashMap<>();
+        // docId -> the owners ("approvers/{emailKey}", "students/{uid}") it counted for when scanned
+        final Map<String, Set<String>> owners = new HashMap<>();
+
+        Scan(long startedAt, Map<String, Long> before) {
+            this.startedAt = startedAt;
+            this.before = before;
+        }
+    }
+
+    private static void recountChunk(DatabaseReference root, Scan scan, String cursor) {
+        Query chunk = root.child(DbKeys.DOCUMENTS).orderByKey();
+        if (cursor != null) chunk = chunk.startAfter(cursor);
+
+        chunk.limitToFirst(CHUNK_SIZE).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                finish();
+                return;
+            }
+            String last = cursor;
+            long count = 0;
+            for (DocumentRecord doc : FirebaseDocumentRepository.decodeChildren(task.getResult())) {
+                Map<String, Long> contribution = StatusCounters.contribution(doc);
+                StatusCounters.addAll(scan.recount, contribution);
+                scan.owners.put(doc.getId(), ownersOf(contribution));
+            }
+            for (DataSnapshot docSnap : task.getResult().getChildren()) {
+                last = docSnap.getKey();
+                count++;
+            }
+
+            if (count == CHUNK_SIZE) {
+                recountChunk(root, scan, last);
+                return;
+            }
+            root.child(DbKeys.STATS).get().addOnCompleteListener(after -> {
+                if (!after.isSuccessful()) {
+                    finish();
+                    return;
+                }
+                Map<String, Long> stored = flatten(after.getResult());
+                root.child(DbKeys.DOCUMENTS).orderByChild(ApprovalTransition.STATE + "/" + ApprovalTransition.WRITTEN_AT)
+                        .startAt(scan.startedAt).get().addOnCompleteListener(moved -> {
+                            if (!moved.isSuccessful()) finish();
+                            else repair(root, scan, stored, movedOwners(scan, moved.getResult()));
+                        });
+            });
+        });
+    }
+
+    /**
+     * Owners of every document written since the scan started: the ones it counted for when
+     * scanned (its old state) and the ones it counts for now.
+     */
+    private static Set<String> movedOwners(Scan scan, DataSnapshot moved) {
+        Set<String> owners = new HashSet<>();
+        for (DocumentRecord doc : FirebaseDocumentRepository.decodeChildren(moved)) {
+            Set<String> scanned = scan.owners.get(doc.getId());
+            if (scanned != null) owners.addAll(scanned);
+            owners.addAll(ownersOf(StatusCounters.contribution(doc)));
+        }
+        return owners;
+    }
+
+    /** "approvers/{emailKey}/Pending" -> "approvers/{emailKey}". */
+    private static String ownerOf(String path) {
+        return path.substring(0, path.lastIndexOf('/'));
+    }
+
+    private static Set<String> ownersOf(Map<String, Long> contribution) {
+        Set<String> owners = new HashSet<>();
+        for (String path : contribution.keySet()) owners.add(ownerOf(path));
+        return owners;
+    }
+
+    /** Increments every quiet counter to its recounted value, and records the outcome. */
+    private static void repair(DatabaseReference root, Scan scan, Map<String, Long> after, Set<String> movedOwners) {
+        Set<String> paths = new HashSet<>(after.keySet());
+        paths.addAll(scan.before.keySet());
+        paths.addAll(scan.recount.keySet());
+
+        Map<String, Object> updates = new HashMap<>();
+        long skipped = 0;
+        for (String path : paths) {
+            long stored = after.getOrDefault(path, 0L);
+            if (movedOwners.contains(ownerOf(path)) || stored != scan.before.getOrDefault(path, 0L)) {
+                skipped++;
+                continue;
+            }
+            long drift = scan.recount.getOrDefault(path, 0L) - stored;
+            if (drift != 0) updates.put(DbKeys.statPath(path), ServerValue.increment(drift));
+        }
+
+        updates.put(CHECKPOINT + "/repaired", updates.size());
+        updates.put(CHECKPOINT + "/skipped", skipped);
+        updates.put(CHECKPOINT + "/finishedAt", ServerValue.TIMESTAMP);
+        root.updateChildren(updates).addOnCompleteListener(write -> finish());
+    }
+
+    /** stats/{group}/{id}/{bucket} -> StatusCounters path -> value. */
+    private static Map<String, Long> flatten(DataSnapshot stats) {
+        Map<String, Long> counters = new HashMap<>();
+        for (DataSnapshot group : stats.getChildren()) {
+            for (DataSnapshot owner : group.getChildren()) {
+                for (DataSnapshot bucket : owner.getChildren()) {
+                    Long value = bucket.getValue(Long.class);
+                    if (value != null) {
+                        counters.put(group.getKey() + "/" + owner.getKey() + "/" + bucket.getKey(), value);
+                    }
+                }
+            }
+        }
+        return counters;
+    }
+}
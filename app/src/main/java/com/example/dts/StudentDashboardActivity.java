@@ -15,13 +15,18 @@ import androidx.appcompat.widget.PopupMenu;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.StatusCounters;
+import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.graphics.Typeface;
 import android.text.SpannableString;
@@ -39,7 +44,12 @@ public class StudentDashboardActivity extends AppCompatActivity {
 
     private RequestAdapter adapter;
     private List<RequestModel> docList = new ArrayList<>();
-    private List<RequestModel> filteredList = new ArrayList<>();
+    private RequestFilter requestFilter;
+    private SubscriptionRegistry subscriptions;
+    private DashboardCache cache;
+    private boolean serverAnswered;
+    // stats/students/{uid}: Pending, Approved, Rejected
+    private final long[] statusCounts = new long[3];
 
     private FirebaseAuth mAuth;
     private DatabaseReference dbRef;
@@ -56,11 +66,22 @@ public class StudentDashboardActivity extends AppCompatActivity {
         chipGroupStudentFilter = findViewById(R.id.chipGroupStudentFilter);
 
         recyclerDocuments.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new RequestAdapter(true);
+        recyclerDocuments.setAdapter(adapter);
+        // Rows keep the flow catalog order; one row per document type
+        requestFilter = new RequestFilter(false, true, RequestModel::getName, rows -> {
+            adapter.submitList(rows);
+            if (!rows.isEmpty()) StartupTrace.firstListShown(this, "StudentDashboard");
+        });
 
         mAuth = FirebaseAuth.getInstance();
         dbRef = FirebaseDatabase.getInstance().getReference();
+        subscriptions = SubscriptionRegistry.attach(this, "StudentDashboard");
+        cache = DashboardCache.getInstance(this);
 
+        showCachedRows();
         loadDocumentsFromFirebase();
+        listenChipCounts();
 
         btnProfileMenuStudent.setOnClickListener(this::showPopupMenu);
 
@@ -79,6 +100,12 @@ public class StudentDashboardActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        requestFilter.shutdown();
+    }
+
     /** Top-right popup menu (Profile + Logout) */
     private void showPopupMenu(View anchor) {
         PopupMenu popup = new PopupMenu(this, anchor);
@@ -88,13 +115,9 @@ public class StudentDashboardActivity extends AppCompatActivity {
         // 🔹 Fetch student's name from Firebase
         String userId = FirebaseAuth.getInstance().getUid();
         if (userId != null) {
-            DatabaseReference userRef = FirebaseDatabase.getInstance()
-                    .getReference("users")
-                    .child(userId);
-
-            userRef.get().addOnSuccessListener(snapshot -> {
-                if (snapshot.exists()) {
-                    String name = snapshot.child("name").getValue(String.class);
+            UserDirectory.getInstance().get(userId, (profile, error) -> {
+                if (profile != null) {
+                    String name = profile.getName();
                     if (name != null && !name.isEmpty()) {
                         // ✅ Make the name bold and black
                         SpannableString styledTitle = new SpannableString(name);
@@ -114,7 +137,9 @@ public class StudentDashboardActivity extends AppCompatActivity {
                 startActivity(new Intent(this, ProfileActivity.class)); // ✅ common for both
                 return true;
             } else if (id == R.id.nav_logout) {
-                // ✅ Sign out user from Firebase
+                // ✅ Sign out user from Firebase (and forget this user's cached lists)
+                DashboardCache.getInstance(this).clear();
+                UserDirectory.getInstance().clear();
                 FirebaseAuth.getInstance().signOut();
 
                 // ✅ Clear Remember Me data so auto-login doesn’t trigger next time
@@ -144,62 +169,116 @@ public class StudentDashboardActivity extends AppCompatActivity {
         return "All";
     }
 
+    /** 🔢 Chip counts from stats/students/{uid}; Not Submitted is whatever of the catalog is left. */
+    private void listenChipCounts() {
+        String studentId = mAuth.getUid();
+        if (studentId == null) return;
+
+        Query counts = dbRef.child(DbKeys.STATS).child("students").child(studentId);
+        subscriptions.addValueListener("stats/students", counts, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                statusCounts[0] = AdminDashboardActivity.count(snapshot, StatusCounters.PENDING);
+                statusCounts[1] = AdminDashboardActivity.count(snapshot, StatusCounters.APPROVED);
+                statusCounts[2] = AdminDashboardActivity.count(snapshot, StatusCounters.REJECTED);
+                showChipCounts();
+            }
+
+            @Override public void onCancelled(@NonNull DatabaseError error) {}
+        });
+    }
+
+    private void showChipCounts() {
+        long submitted = statusCounts[0] + statusCounts[1] + statusCounts[2];
+        ((Chip) findViewById(R.id.chipPendingStudent)).setText("Pending (" + statusCounts[0] + ")");
+        ((Chip) findViewById(R.id.chipApprovedStudent)).setText("Approved (" + statusCounts[1] + ")");
+        ((Chip) findViewById(R.id.chipRejectedStudent)).setText("Rejected (" + statusCounts[2] + ")");
+        if (docList.isEmpty()) return; // catalog not loaded yet
+        ((Chip) findViewById(R.id.chipAllStudent)).setText("All (" + docList.size() + ")");
+        ((Chip) findViewById(R.id.chipNotSubmitted))
+                .setText("Not Submitted (" + Math.max(0, docList.size() - submitted) + ")");
+    }
+
     private void applyFilters(String statusFilter, String searchText) {
-        filteredList.clear();
-        for (RequestModel doc : docList) {
-            boolean matchesStatus = statusFilter.equals("All") ||
-                    doc.getStatus().equalsIgnoreCase(statusFilter);
-            boolean matchesSearch = searchText.isEmpty() ||
-                    doc.getName().toLowerCase().contains(searchText.toLowerCase());
-
-            if (matchesStatus && matchesSearch) filteredList.add(doc);
-        }
-        adapter.notifyDataSetChanged();
+        requestFilter.setQuery(searchText, statusFilter);
     }
 
-    /** Load documents live */
+    /** ⚡ Last session's list straight from disk (or at least the cached flow catalog) until Firebase answers */
+    private void showCachedRows() {
+        String owner = mAuth.getUid();
+        if (owner == null) return;
+
+        cache.loadRows(owner, DashboardCache.SCREEN_STUDENT, rows -> {
+            if (serverAnswered) return;
+            if (!rows.isEmpty()) {
+                requestFilter.replaceAll(rows);
+                return;
+            }
+            FlowCatalog flowCatalog = FlowCatalog.getInstance();
+            flowCatalog.load(this, () -> {
+                if (serverAnswered || flowCatalog.getFlows().isEmpty()) return;
+                List<RequestModel> catalog = new ArrayList<>();
+                for (String docName : flowCatalog.getFlows().keySet())
+                    catalog.add(new RequestModel("", docName, "Not Submitted"));
+                requestFilter.replaceAll(catalog);
+            });
+        });
+    }
+
+    private void cacheRows(List<RequestModel> rows) {
+        String owner = mAuth.getUid();
+        if (owner == null) return;
+        List<String> keys = new ArrayList<>();
+        for (RequestModel row : rows) keys.add(row.getName());
+        cache.replaceRows(owner, DashboardCache.SCREEN_STUDENT, keys, rows);
+    }
+
+    /** Load documents live; the flow catalog is downloaded again only when flowsVersion moved */
     private void loadDocumentsFromFirebase() {
-        dbRef.child("flows").get().addOnSuccessListener(snapshot -> {
-            if (snapshot.exists()) {
+        FlowCatalog flowCatalog = FlowCatalog.getInstance();
+        // A failed sync (offline) still leaves the copy from the last one
+        flowCatalog.sync(this, (synced, error) -> {
+            if (!flowCatalog.getFlows().isEmpty()) {
                 docList.clear();
-                for (DataSnapshot flowSnap : snapshot.getChildren()) {
-                    String docName = flowSnap.getKey();
+                for (String docName : flowCatalog.getFlows().keySet())
                     docList.add(new RequestModel("", docName, "Not Submitted"));
-                }
+                showChipCounts();
 
                 String studentId = mAuth.getUid();
-                dbRef.child("documents").orderByChild("studentId").equalTo(studentId)
-                        .addValueEventListener(new ValueEventListener() {
-                            @Override
-                            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                                for (RequestModel doc : docList) {
-                                    doc.setStatus("Not Submitted");
-                                }
-
-                                for (DataSnapshot docSnap : dataSnapshot.getChildren()) {
-                                    String type = docSnap.child("documentType").getValue(String.class);
-                                    String status = docSnap.child("status").getValue(String.class);
-
-                                    for (RequestModel doc : docList) {
-                                        if (doc.getName().equals(type)) {
-                                            doc.setStatus(status);
-                                        }
-                                    }
-                                }
-
-                                filteredList.clear();
-                                filteredList.addAll(docList);
-
-                                if (adapter == null) {
-                                    adapter = new RequestAdapter(filteredList, true);
-                                    recyclerDocuments.setAdapter(adapter);
-                                } else {
-                                    adapter.notifyDataSetChanged();
-                                }
+                Query myDocuments = dbRef.child("documents").orderByChild("studentId").equalTo(studentId);
+                subscriptions.addValueListener("myDocuments", myDocuments, new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                        Map<String, String> statusByType = new HashMap<>();
+                        Map<String, String> docIdByType = new HashMap<>();
+                        for (DocumentRecord doc : FirebaseDocumentRepository.decodeChildren(dataSnapshot)) {
+                            String type = doc.getDocumentType();
+                            if (type != null) {
+                                statusByType.put(type, doc.getStatus());
+                                docIdByType.put(type, doc.getId());
                             }
+                        }
+
+                        // Fresh row objects so the adapter can diff old vs new contents
+                        List<RequestModel> updated = new ArrayList<>();
+                        for (RequestModel doc : docList) {
+                            String status = statusByType.containsKey(doc.getName())
+                                    ? statusByType.get(doc.getName())
+                                    : "Not Submitted";
+                            // Carry the docId so the detail screen can watch that one document
+                            String id = docIdByType.containsKey(doc.getName())
+                                    ? docIdByType.get(doc.getName())
+                                    : "";
+                            updated.add(new RequestModel(id, doc.getName(), status));
+                        }
+                        docList = updated;
+                        serverAnswered = true;
+                        requestFilter.replaceAll(docList);
+                        cacheRows(updated);
+                    }
 
-                            @Override public void onCancelled(@NonNull DatabaseError error) {}
-                        });
+                    @Override public void onCancelled(@NonNull DatabaseError error) {}
+                });
             }
         });
     }
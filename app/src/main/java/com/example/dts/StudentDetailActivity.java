@@ -1,23 +1,32 @@
 package com.example.dts;
 
 import android.content.Intent;
-import android.graphics.Typeface;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
-
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.dts.core.DocumentDecoder;
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.QueuedAction;
+import com.example.dts.core.RemarkCompaction;
+import com.example.dts.core.RemarkRecord;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
@@ -30,13 +39,28 @@ public class StudentDetailActivity extends AppCompatActivity {
 
     private TextView tvDocName, tvDocStatus, tvSubmittedOn, btnBack;
     private MaterialButton btnSubmit, btnLogout;
-    private LinearLayout timelineContainer;
+    private TextView tvNoRemarks;
+    private RecyclerView recyclerTimeline;
+    private TimelineAdapter timelineAdapter;
+
+    private static final int REMARKS_PAGE_SIZE = 20;
+    private final Map<String, RemarkModel> remarksByKey = new HashMap<>();
+    private List<RemarkModel> allRemarks = new ArrayList<>();
+    private boolean loadingOlder, noOlderRemarks;
+    private boolean legacyRemarks;
+    private DataSnapshot legacyRemarksSnap;
 
     private String docId, docName, docStatus;
 
     private DatabaseReference dbRef;
     private FirebaseAuth mAuth;
+    private SubscriptionRegistry subscriptions;
     private TextView tvApprovalFlow, tvCurrentApprover;
+    private Outbox.ResultCallback submitResult;
+
+    // How long the screen waits for the server before leaving the submission to the Outbox
+    private static final long RESULT_WAIT_MS = 8_000;
+    private final Handler timeoutHandler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -45,12 +69,14 @@ public class StudentDetailActivity extends AppCompatActivity {
 
         dbRef = FirebaseDatabase.getInstance().getReference();
         mAuth = FirebaseAuth.getInstance();
+        subscriptions = SubscriptionRegistry.attach(this, "StudentDetail");
 
         tvDocName = findViewById(R.id.tvDocName);
         tvDocStatus = findViewById(R.id.tvDocStatus);
         tvSubmittedOn = findViewById(R.id.tvSubmittedOn);
         btnSubmit = findViewById(R.id.btnSubmit);
-        timelineContainer = findViewById(R.id.timelineContainer);
+        tvNoRemarks = findViewById(R.id.tvNoRemarks);
+        recyclerTimeline = findViewById(R.id.recyclerTimeline);
         btnBack = findViewById(R.id.btnBack);
         btnLogout = findViewById(R.id.btnLogout);
         tvApprovalFlow = findViewById(R.id.tvApprovalFlow);
@@ -60,13 +86,28 @@ public class StudentDetailActivity extends AppCompatActivity {
         docName = getIntent().getStringExtra("docName");
         docStatus = getIntent().getStringExtra("docStatus");
 
+        LinearLayoutManager timelineLayout = new LinearLayoutManager(this);
+        timelineLayout.setStackFromEnd(true); // open on the newest remark
+        recyclerTimeline.setLayoutManager(timelineLayout);
+        timelineAdapter = new TimelineAdapter();
+        timelineAdapter.setArchiveListener(this::loadArchivedCycle);
+        recyclerTimeline.setAdapter(timelineAdapter);
+        recyclerTimeline.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy < 0 && !rv.canScrollVertically(-1)) loadOlderRemarks();
+            }
+        });
+
         tvDocName.setText(docName);
         updateStatusUI(docStatus);
 
         btnBack.setOnClickListener(v -> onBackPressed());
 
         btnLogout.setOnClickListener(v -> {
-            // ✅ Sign out user from Firebase
+            // ✅ Sign out user from Firebase (and forget this user's cached lists)
+            DashboardCache.getInstance(this).clear();
+            UserDirectory.getInstance().clear();
             FirebaseAuth.getInstance().signOut();
 
             // ✅ Clear Remember Me data so auto-login doesn’t trigger next time
@@ -120,311 +161,263 @@ public class StudentDetailActivity extends AppCompatActivity {
         }
     }
 
-    /** ✅ Handles new submission and resubmission (creates NEW doc on resubmit) */
-    /** ✅ Handles new submission and resubmission */
+    /**
+     * ✅ Handles new submission and resubmission through the Outbox: the queued action carries
+     * its own idempotency key and new docId, so a double tap or a retry can't create a second document.
+     */
     private void handleSubmitOrResubmit(String action) {
         String studentId = mAuth.getUid();
         if (studentId == null) {
             Toast.makeText(this, "User not logged in", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (submitResult != null) return; // already on its way
+
+        QueuedAction queued = QueuedAction.submission(Outbox.newActionId(), studentId, docName,
+                dbRef.child(DbKeys.DOCUMENTS).push().getKey(), System.currentTimeMillis());
+        Outbox outbox = Outbox.getInstance(this);
+        if (!outbox.isOnline()) {
+            outbox.enqueue(Collections.singletonList(queued), null);
+            Toast.makeText(this, "You’re offline. Your submission is saved and will be sent automatically.",
+                    Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
 
-        dbRef.child("flows").child(docName).get().addOnSuccessListener(snapshot -> {
-            if (!snapshot.exists()) {
-                Toast.makeText(this, "No approver chain found for " + docName, Toast.LENGTH_SHORT).show();
+        btnSubmit.setEnabled(false);
+        submitResult = (actionIds, refused) -> {
+            submitResult = null;
+            timeoutHandler.removeCallbacksAndMessages(null);
+            if (!refused.isEmpty()) {
+                btnSubmit.setEnabled(true);
+                Toast.makeText(this, refused.values().iterator().next(), Toast.LENGTH_SHORT).show();
                 return;
             }
+            Toast.makeText(this, "Resubmit".equals(action) ? "Resubmitted successfully" : "Submitted successfully",
+                    Toast.LENGTH_SHORT).show();
+            finish();
+        };
+        outbox.enqueue(Collections.singletonList(queued), submitResult);
+
+        // 📶 Weak signal: don't hold the student here, the queue keeps retrying on its own
+        timeoutHandler.postDelayed(() -> {
+            if (submitResult == null) return;
+            outbox.cancel(submitResult);
+            submitResult = null;
+            Toast.makeText(this, "Saved. Your submission will be sent when the connection improves.",
+                    Toast.LENGTH_LONG).show();
+            finish();
+        }, RESULT_WAIT_MS);
+    }
 
-            List<String> approverChain = new ArrayList<>();
-            for (DataSnapshot child : snapshot.getChildren())
-                approverChain.add(child.getValue(String.class));
-
-            long now = System.currentTimeMillis();
-            String formattedTime = android.text.format.DateFormat.format("hh:mm a, dd MMM yyyy", now).toString();
-
-            // ✅ Check if document already exists
-            dbRef.child("documents").orderByChild("studentId").equalTo(studentId)
-                    .get().addOnSuccessListener(docsSnap -> {
-                        String existingDocId = null;
-                        for (DataSnapshot d : docsSnap.getChildren()) {
-                            String type = d.child("documentType").getValue(String.class);
-                            if (type != null && type.equals(docName)) {
-                                existingDocId = d.getKey();
-                                break;
-                            }
-                        }
-
-                        if (existingDocId != null) {
-                            // ✅ Update existing document (Resubmit)
-                            Map<String, Object> updates = new HashMap<>();
-                            updates.put("documents/" + existingDocId + "/status", "Pending");
-                            updates.put("documents/" + existingDocId + "/overallStatus", "Pending");
-                            updates.put("documents/" + existingDocId + "/currentApproverIndex", 0);
-                            updates.put("documents/" + existingDocId + "/updatedAt", now);
-
-                            // 🔹 Reset approval statuses for all approvers
-                            for (String email : approverChain) {
-                                String approverKey = email.replace("@", "_").replace(".", "_").toLowerCase();
-                                updates.put("documents/" + existingDocId + "/approvalStatus/" + approverKey, "Pending");
-                            }
-
-                            // ✅ Add resubmission remark (keep all previous remarks)
-                            String remarkKey = "system_" + now;
-                            Map<String, Object> remark = new HashMap<>();
-                            remark.put("status", "Resubmitted");
-                            remark.put("comment", "Resubmitted on " + formattedTime);
-                            remark.put("time", now);
-                            updates.put("documents/" + existingDocId + "/remarks/" + remarkKey, remark);
-
-                            dbRef.updateChildren(updates)
-                                    .addOnSuccessListener(unused -> {
-                                        Toast.makeText(this, "Resubmitted successfully", Toast.LENGTH_SHORT).show();
-                                        finish();
-                                    })
-                                    .addOnFailureListener(e ->
-                                            Toast.makeText(this, "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-
-                        } else {
-                            // ✅ Create new document for first submission
-                            String newDocId = dbRef.child("documents").push().getKey();
-
-                            Map<String, Object> docData = new HashMap<>();
-                            docData.put("studentId", studentId);
-                            docData.put("documentType", docName);
-                            docData.put("status", "Pending");
-                            docData.put("overallStatus", "Pending");
-                            docData.put("approverChain", approverChain);
-                            docData.put("currentApproverIndex", 0);
-                            docData.put("createdAt", now);
-                            docData.put("updatedAt", now);
-
-                            Map<String, Object> approvalStatus = new HashMap<>();
-                            for (String email : approverChain) {
-                                approvalStatus.put(email.replace("@", "_").replace(".", "_").toLowerCase(), "Pending");
-                            }
-                            docData.put("approvalStatus", approvalStatus);
-
-                            Map<String, Object> remarks = new HashMap<>();
-                            Map<String, Object> initial = new HashMap<>();
-                            initial.put("status", "Submitted");
-                            initial.put("comment", "Submitted on " + formattedTime);
-                            initial.put("time", now);
-                            remarks.put("system_" + now, initial);
-                            docData.put("remarks", remarks);
-
-                            dbRef.child("documents").child(newDocId).setValue(docData)
-                                    .addOnSuccessListener(unused -> {
-                                        Toast.makeText(this, "Submitted successfully", Toast.LENGTH_SHORT).show();
-                                        finish();
-                                    })
-                                    .addOnFailureListener(e ->
-                                            Toast.makeText(this, "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-                        }
-                    });
-        });
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        timeoutHandler.removeCallbacksAndMessages(null);
+        // A submission still in flight stays queued; only this screen stops waiting for it
+        if (submitResult != null) Outbox.getInstance(this).cancel(submitResult);
     }
 
-    /** ✅ Realtime listener for live updates + remarks timeline */
+    /** ✅ Realtime listener on this one document + the newest page of its remarks */
     private void listenForUpdates() {
-        dbRef.child("documents").orderByChild("studentId").equalTo(mAuth.getUid())
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        for (DataSnapshot docSnap : snapshot.getChildren()) {
-                            String type = docSnap.child("documentType").getValue(String.class);
-                            if (type == null || !type.equals(docName)) continue;
-
-                            String status = docSnap.child("status").getValue(String.class);
-                            if (status != null) {
-                                docStatus = status;
-                                updateStatusUI(docStatus);
-                            }
-
-                            Long createdAt = docSnap.child("createdAt").getValue(Long.class);
-                            if (createdAt != null) {
-                                String formattedCreated = android.text.format.DateFormat.format("hh:mm a, dd MMM yyyy", createdAt).toString();
-                                tvSubmittedOn.setText("Submitted On: " + formattedCreated);
-                            }
-
-                            // 🧩 Fetch and display approval chain
-                            List<String> chain = new ArrayList<>();
-                            for (DataSnapshot approver : docSnap.child("approverChain").getChildren()) {
-                                String email = approver.getValue(String.class);
-                                if (email != null)
-                                    chain.add(getReadableRole(email.replace("@", "_").replace(".", "_")));
-                            }
-
-                            if (!chain.isEmpty()) {
-                                StringBuilder chainDisplay = new StringBuilder("Approval Flow: ");
-                                for (int i = 0; i < chain.size(); i++) {
-                                    chainDisplay.append(chain.get(i));
-                                    if (i < chain.size() - 1) chainDisplay.append(" → ");
-                                }
-                                tvApprovalFlow.setText(chainDisplay.toString());
-                                tvApprovalFlow.setVisibility(View.VISIBLE);
-                            }
-
-                            // 🧩 Show pending/approved/rejected stage
-                            Long currentIndex = docSnap.child("currentApproverIndex").getValue(Long.class);
-                            String overallStatus = docSnap.child("status").getValue(String.class);
-
-                            if ("Approved".equalsIgnoreCase(overallStatus)) {
-                                tvCurrentApprover.setText("Approved ✅");
-                                tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.green_500));
-                                tvCurrentApprover.setVisibility(View.VISIBLE);
-                            } else if ("Rejected".equalsIgnoreCase(overallStatus)) {
-                                tvCurrentApprover.setText("Rejected ❌");
-                                tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.red_500));
-                                tvCurrentApprover.setVisibility(View.VISIBLE);
-                            } else if (currentIndex != null && currentIndex < chain.size()) {
-                                tvCurrentApprover.setText("(Pending with: " + chain.get(currentIndex.intValue()) + ")");
-                                tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.orange_500));
-                                tvCurrentApprover.setVisibility(View.VISIBLE);
-
-                                // 🔸 Update status label also to show where it’s pending
-                                tvDocStatus.setText("Status: Pending with " + chain.get(currentIndex.intValue()));
-                            }
-
-                            // 🧾 Remarks Section
-                            timelineContainer.removeAllViews();
-                            DataSnapshot remarksSnap = docSnap.child("remarks");
-                            if (!remarksSnap.exists()) {
-                                TextView tv = new TextView(StudentDetailActivity.this);
-                                tv.setText("No remarks yet. Submit the document to start the process.");
-                                tv.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.gray_500));
-                                tv.setPadding(16, 12, 16, 12);
-                                timelineContainer.addView(tv);
-                                continue;
-                            }
-
-                            List<DataSnapshot> remarks = new ArrayList<>();
-
-                            for (DataSnapshot roleSnap : remarksSnap.getChildren()) {
-                                String roleKey = roleSnap.getKey();
-
-                                // ✅ System remarks (Submitted / Resubmitted)
-                                if (roleKey != null && roleKey.startsWith("system_")) {
-                                    remarks.add(roleSnap);
-                                    continue;
-                                }
-
-                                // ✅ Role-based remarks (Faculty, HOD, etc.)
-                                for (DataSnapshot timeSnap : roleSnap.getChildren()) {
-                                    timeSnap.getRef().getKey(); // no DB write
-                                    remarks.add(timeSnap);
-                                }
-                            }
-
-                            Collections.sort(remarks, (a, b) -> {
-                                long t1 = a.child("time").getValue(Long.class) != null
-                                        ? a.child("time").getValue(Long.class) : 0L;
-                                long t2 = b.child("time").getValue(Long.class) != null
-                                        ? b.child("time").getValue(Long.class) : 0L;
-                                return Long.compare(t1, t2);
-                            });
-
-                            for (DataSnapshot remarkSnap : remarks) {
-                                String roleKey = null;
-                                try {
-                                    roleKey = remarkSnap.getRef().getParent().getKey();
-                                } catch (Exception ignored) {}
-
-                                if (roleKey == null)
-                                    roleKey = remarkSnap.getKey(); // fallback for system remarks
-
-                                String remarkStatus = remarkSnap.child("status").getValue(String.class);
-                                String comment = remarkSnap.child("comment").getValue(String.class);
-                                Long time = remarkSnap.child("time").getValue(Long.class);
-                                String formattedTime = (time != null)
-                                        ? android.text.format.DateFormat.format("hh:mm a, dd MMM yyyy", time).toString()
-                                        : "-";
-
-                                boolean isSystemRemark = roleKey != null && roleKey.startsWith("system_");
-
-                                LinearLayout bubble = new LinearLayout(StudentDetailActivity.this);
-                                bubble.setOrientation(LinearLayout.VERTICAL);
-                                bubble.setBackground(ContextCompat.getDrawable(StudentDetailActivity.this, R.drawable.bg_timeline_bubble));
-                                bubble.setPadding(24, 20, 24, 20);
-                                LinearLayout.LayoutParams bubbleLp = new LinearLayout.LayoutParams(
-                                        LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-                                bubbleLp.setMargins(0, 12, 0, 0);
-                                bubble.setLayoutParams(bubbleLp);
-
-                                if (isSystemRemark) {
-                                    TextView tvSys = new TextView(StudentDetailActivity.this);
-                                    tvSys.setText(comment);
-                                    tvSys.setTextSize(13);
-                                    tvSys.setTypeface(null, Typeface.ITALIC);
-                                    tvSys.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.gray_500));
-                                    bubble.addView(tvSys);
-                                } else {
-                                    String role = getReadableRole(roleKey);
-                                    TextView tvHeader = new TextView(StudentDetailActivity.this);
-
-                                    String actionLabel = "";
-                                    if (remarkStatus != null) {
-                                        if (remarkStatus.equalsIgnoreCase("Approved"))
-                                            actionLabel = " (Approved)";
-                                        else if (remarkStatus.equalsIgnoreCase("Rejected"))
-                                            actionLabel = " (Rejected)";
-                                        else if (remarkStatus.equalsIgnoreCase("Commented"))
-                                            actionLabel = " (Commented)";
-                                    }
-
-                                    tvHeader.setText(role + actionLabel + "    " + formattedTime);
-                                    tvHeader.setTextSize(14);
-                                    tvHeader.setTypeface(null, Typeface.BOLD);
-
-                                    if ("Approved".equalsIgnoreCase(remarkStatus))
-                                        tvHeader.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.green_500));
-                                    else if ("Rejected".equalsIgnoreCase(remarkStatus))
-                                        tvHeader.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.red_500));
-                                    else
-                                        tvHeader.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.gray_700));
-
-                                    bubble.addView(tvHeader);
-
-                                    if (comment != null && !comment.isEmpty()) {
-                                        TextView tvComment = new TextView(StudentDetailActivity.this);
-                                        tvComment.setText("\"" + comment + "\"");
-                                        tvComment.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.gray_600));
-                                        tvComment.setTextSize(14);
-                                        tvComment.setPadding(0, 8, 0, 0);
-                                        bubble.addView(tvComment);
-                                    }
-                                }
-
-                                timelineContainer.addView(bubble);
-                            }
-                        }
+        // Not submitted yet: nothing to watch
+        if (docId == null || docId.isEmpty()) return;
+
+        Query doc = dbRef.child("documents").child(docId);
+        subscriptions.addValueListener("document", doc, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot docSnap) {
+                DocumentRecord record = DocumentDecoder.decode(docSnap.getKey(), docSnap.getValue());
+                if (record == null) return;
+
+                String status = record.getStatus();
+                if (status != null) {
+                    docStatus = status;
+                    updateStatusUI(docStatus);
+                }
+
+                long createdAt = record.getCreatedAt();
+                if (createdAt > 0) {
+                    String formattedCreated = android.text.format.DateFormat.format("hh:mm a, dd MMM yyyy", createdAt).toString();
+                    tvSubmittedOn.setText("Submitted On: " + formattedCreated);
+                }
+
+                // 🧩 Fetch and display approval chain
+                List<String> chain = new ArrayList<>();
+                for (String email : record.getApproverChain()) {
+                    chain.add(RoleNames.readable(DbKeys.emailKey(email)));
+                }
+
+                if (!chain.isEmpty()) {
+                    StringBuilder chainDisplay = new StringBuilder("Approval Flow: ");
+                    for (int i = 0; i < chain.size(); i++) {
+                        chainDisplay.append(chain.get(i));
+                        if (i < chain.size() - 1) chainDisplay.append(" → ");
                     }
+                    tvApprovalFlow.setText(chainDisplay.toString());
+                    tvApprovalFlow.setVisibility(View.VISIBLE);
+                }
+
+                // 🧩 Show pending/approved/rejected stage
+                int currentIndex = record.getCurrentApproverIndex();
+                String overallStatus = record.getStatus();
+
+                if ("Approved".equalsIgnoreCase(overallStatus)) {
+                    tvCurrentApprover.setText("Approved ✅");
+                    tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.green_500));
+                    tvCurrentApprover.setVisibility(View.VISIBLE);
+                } else if ("Rejected".equalsIgnoreCase(overallStatus)) {
+                    tvCurrentApprover.setText("Rejected ❌");
+                    tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.red_500));
+                    tvCurrentApprover.setVisibility(View.VISIBLE);
+                } else if (currentIndex < chain.size()) {
+                    tvCurrentApprover.setText("(Pending with: " + chain.get(currentIndex) + ")");
+                    tvCurrentApprover.setTextColor(ContextCompat.getColor(StudentDetailActivity.this, R.color.orange_500));
+                    tvCurrentApprover.setVisibility(View.VISIBLE);
+
+                    // 🔸 Update status label also to show where it’s pending
+                    tvDocStatus.setText("Status: Pending with " + chain.get(currentIndex));
+                }
+
+                // Documents the RemarksMigrator hasn't reached yet only have inline remarks
+                legacyRemarksSnap = docSnap.child("remarks");
+                if (legacyRemarks) showLegacyRemarks();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        });
+
+        listenForRemarks();
+    }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
+    /** 🧾 Live feed of the newest REMARKS_PAGE_SIZE remarks from documentRemarks/{docId} */
+    private void listenForRemarks() {
+        Query newest = dbRef.child(DbKeys.DOCUMENT_REMARKS).child(docId)
+                .orderByChild("time").limitToLast(REMARKS_PAGE_SIZE);
+
+        subscriptions.addChildListener("newestRemarks", newest, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot remarkSnap, String previousChildName) {
+                putRemark(remarkSnap);
+                showTimeline();
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot remarkSnap, String previousChildName) {
+                putRemark(remarkSnap);
+                showTimeline();
+            }
+
+            // A remark sliding out of the newest-N window is still history: keep it
+            @Override public void onChildRemoved(@NonNull DataSnapshot remarkSnap) {}
+            @Override public void onChildMoved(@NonNull DataSnapshot remarkSnap, String previousChildName) {}
+            @Override public void onCancelled(@NonNull DatabaseError error) {}
+        });
+
+        // Value events fire after the initial child events, so this tells us whether the feed is empty
+        newest.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (snapshot.getChildrenCount() < REMARKS_PAGE_SIZE) noOlderRemarks = true;
+                if (!snapshot.exists()) {
+                    legacyRemarks = true;
+                    showLegacyRemarks();
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        });
+    }
+
+    /** Fetches the page of remarks just before the oldest one loaded. */
+    private void loadOlderRemarks() {
+        if (legacyRemarks || noOlderRemarks || loadingOlder || remarksByKey.isEmpty()) return;
+        RemarkModel oldest = allRemarks.get(0);
+        loadingOlder = true;
+
+        dbRef.child(DbKeys.DOCUMENT_REMARKS).child(docId)
+                .orderByChild("time")
+                .endBefore(oldest.getTime(), oldest.getKey())
+                .limitToLast(REMARKS_PAGE_SIZE)
+                .get()
+                .addOnCompleteListener(task -> {
+                    loadingOlder = false;
+                    if (!task.isSuccessful()) return;
+                    DataSnapshot page = task.getResult();
+                    if (page.getChildrenCount() < REMARKS_PAGE_SIZE) noOlderRemarks = true;
+                    for (DataSnapshot remarkSnap : page.getChildren()) putRemark(remarkSnap);
+                    showTimeline();
                 });
     }
 
-    private String getReadableRole(String roleKey) {
-        if (roleKey == null) return "-";
-        switch (roleKey.toLowerCase()) {
-            case "faculty_dts_com": return "Faculty";
-            case "dtshod_dts_com": return "HOD";
-            case "accounts_dts_com": return "Accounts";
-            case "hostelwarden_dts_com": return "Hostel Warden";
-            case "messsupervisor_dts_com": return "Mess Supervisor";
-            case "librarian_dts_com": return "Librarian";
-            case "placement_dts_com": return "Placement Cell";
-            case "academic_dts_com": return "Academic Section";
-            case "scholarship_dts_com": return "Scholarship Officer";
-            default:
-                String[] parts = roleKey.split("_");
-                StringBuilder sb = new StringBuilder();
-                for (String p : parts) {
-                    if (!p.equals("dts") && !p.equals("com") && !p.isEmpty()) {
-                        sb.append(Character.toUpperCase(p.charAt(0))).append(p.substring(1)).append(" ");
+    /** Swaps a closed cycle's summary row for the remarks archived under it. */
+    private void loadArchivedCycle(RemarkModel summary) {
+        int cycle = RemarkCompaction.cycleOf(summary.getKey());
+        if (cycle == 0) return;
+        dbRef.child(DbKeys.DOCUMENT_REMARKS_ARCHIVE).child(docId).child(String.valueOf(cycle)).get()
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        Toast.makeText(this, "Couldn't load earlier remarks", Toast.LENGTH_SHORT).show();
+                        return;
                     }
-                }
-                return sb.toString().trim();
+                    for (DataSnapshot remarkSnap : task.getResult().getChildren()) putRemark(remarkSnap);
+                    remarksByKey.remove(summary.getKey());
+                    showTimeline();
+                });
+    }
+
+    private void putRemark(DataSnapshot remarkSnap) {
+        String key = remarkSnap.getKey();
+        RemarkRecord remark = DocumentDecoder.decodeRemark(remarkSnap.getValue());
+        remarksByKey.put(key, toRemark(key, remark.isSystem() ? key : remark.getBy(), remark));
+    }
+
+    private void showLegacyRemarks() {
+        if (legacyRemarksSnap == null) return;
+        if (!legacyRemarksSnap.exists()) {
+            // Migrated while open: the feed listener delivers the same keys, so keep what's shown
+            legacyRemarks = false;
+            return;
+        }
+        remarksByKey.clear();
+        for (DataSnapshot roleSnap : legacyRemarksSnap.getChildren()) {
+            String roleKey = roleSnap.getKey();
+            if (roleKey == null) continue;
+
+            // ✅ System remarks (Submitted / Resubmitted)
+            if (roleKey.startsWith("system_")) {
+                RemarkRecord remark = DocumentDecoder.decodeRemark(RemarkRecord.SYSTEM, roleSnap.getValue());
+                remarksByKey.put(roleKey, toRemark(roleKey, roleKey, remark));
+                continue;
+            }
+
+            // ✅ Role-based remarks (Faculty, HOD, etc.)
+            for (DataSnapshot timeSnap : roleSnap.getChildren()) {
+                String key = DbKeys.remarkKey(roleKey, timeSnap.getKey());
+                remarksByKey.put(key, toRemark(key, roleKey, DocumentDecoder.decodeRemark(roleKey, timeSnap.getValue())));
+            }
         }
+        showTimeline();
+    }
+
+    private static RemarkModel toRemark(String key, String roleKey, RemarkRecord remark) {
+        return new RemarkModel(key, roleKey, remark.getStatus(), remark.getComment(), remark.getTime(),
+                remark.isSystem());
+    }
+
+    /** Shows every loaded remark, oldest first; the adapter diffs, so a new remark adds one row. */
+    private void showTimeline() {
+        List<RemarkModel> remarks = new ArrayList<>(remarksByKey.values());
+        Collections.sort(remarks, (x, y) -> x.getTime() != y.getTime()
+                ? Long.compare(x.getTime(), y.getTime())
+                : x.getKey().compareTo(y.getKey()));
+        allRemarks = remarks;
+
+        boolean empty = allRemarks.isEmpty();
+        tvNoRemarks.setVisibility(empty ? View.VISIBLE : View.GONE);
+        recyclerTimeline.setVisibility(empty ? View.GONE : View.VISIBLE);
+        timelineAdapter.submitList(allRemarks);
     }
 }
\ No newline at end of file
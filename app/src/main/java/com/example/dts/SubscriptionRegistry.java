@@ -0,0 +1,284 @@
+package com.example.dts;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Owns one screen's Realtime Database listeners and ties them to that screen's lifecycle.
+ *
+ * Subscriptions are keyed: adding a second listener under a key that is already subscribed
+ * shares the one Firebase listener instead of opening another. Listeners are detached on
+ * ON_STOP and re-attached on ON_START; value listeners then get the current value, and child
+ * listeners get only what changed while paused (added / changed / removed), so screens don't
+ * rebuild from scratch. Everything is removed on ON_DESTROY. Main thread only.
+ */
+final class SubscriptionRegistry implements DefaultLifecycleObserver {
+
+    /** Handle for one added listener. */
+    interface Subscription {
+        void remove();
+    }
+
+    // screen -> Firebase listeners currently attached, across all registries
+    private static final Map<String, Integer> activeByScreen = new HashMap<>();
+
+    private final String screen;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean started;
+
+    private SubscriptionRegistry(String screen) {
+        this.screen = screen;
+    }
+
+    /** Registry for owner, named screen in the listener counts. */
+    static SubscriptionRegistry attach(LifecycleOwner owner, String screen) {
+        SubscriptionRegistry registry = new SubscriptionRegistry(screen);
+        owner.getLifecycle().addObserver(registry);
+        return registry;
+    }
+
+    /** Firebase listeners currently attached, per screen. */
+    static Map<String, Integer> getActiveListenerCounts() {
+        return new HashMap<>(activeByScreen);
+    }
+
+    /** Firebase listeners currently attached by this registry. */
+    int getActiveCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) if (entry.attached) count++;
+        return count;
+    }
+
+    Subscription addValueListener(String key, Query query, ValueEventListener listener) {
+        ValueEntry entry = entryOf(key, ValueEntry.class);
+        if (entry == null) {
+            entry = new ValueEntry(key, query);
+            entries.put(key, entry);
+        }
+        entry.consumers.add(listener);
+        // A shared subscription already has data: hand it to the newcomer right away
+        if (entry.last != null) listener.onDataChange(entry.last);
+        if (started) entry.attach();
+        return remover(entry, listener);
+    }
+
+    Subscription addChildListener(String key, Query query, ChildEventListener listener) {
+        ChildEntry entry = entryOf(key, ChildEntry.class);
+        if (entry == null) {
+            entry = new ChildEntry(key, query);
+            entries.put(key, entry);
+        }
+        entry.consumers.add(listener);
+        String previous = null;
+        for (DataSnapshot child : entry.children.values()) {
+            listener.onChildAdded(child, previous);
+            previous = child.getKey();
+        }
+        if (started) entry.attach();
+        return remover(entry, listener);
+    }
+
+    /** The shared entry under key, if any; one key can't hold both a value and a child subscription. */
+    private <T extends Entry> T entryOf(String key, Class<T> kind) {
+        Entry entry = entries.get(key);
+        if (entry == null || kind.isInstance(entry)) return kind.cast(entry);
+        throw new IllegalStateException("Subscription key \"" + key + "\" is already used by a "
+                + entry.getClass().getSimpleName() + ", not a " + kind.getSimpleName());
+    }
+
+    private Subscription remover(Entry entry, Object listener) {
+        return () -> {
+            entry.consumers.remove(listener);
+            if (entry.consumers.isEmpty() && entries.get(entry.key) == entry) {
+                entry.detach();
+                entries.remove(entry.key);
+            }
+        };
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        started = true;
+        for (Entry entry : entries.values()) entry.attach();
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        started = false;
+        for (Entry entry : entries.values()) entry.detach();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        for (Entry entry : entries.values()) entry.detach();
+        entries.clear();
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    private void countAttached(int delta) {
+        Integer current = activeByScreen.get(screen);
+        int next = (current != null ? current : 0) + delta;
+        if (next > 0) activeByScreen.put(screen, next);
+        else activeByScreen.remove(screen);
+    }
+
+    private abstract class Entry {
+        final String key;
+        final Query query;
+        final List<Object> consumers = new ArrayList<>();
+        boolean attached;
+
+        Entry(String key, Query query) {
+            this.key = key;
+            this.query = query;
+        }
+
+        final void attach() {
+            if (attached) return;
+            attached = true;
+            countAttached(1);
+            onAttach();
+        }
+
+        final void detach() {
+            if (!attached) return;
+            attached = false;
+            countAttached(-1);
+            onDetach();
+        }
+
+        abstract void onAttach();
+        abstract void onDetach();
+    }
+
+    private final class ValueEntry extends Entry implements ValueEventListener {
+        DataSnapshot last;
+        boolean resuming;
+
+        ValueEntry(String key, Query query) {
+            super(key, query);
+        }
+
+        @Override
+        void onAttach() {
+            resuming = last != null;
+            query.addValueEventListener(this);
+        }
+
+        @Override void onDetach() { query.removeEventListener(this); }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            boolean unchanged = resuming && Objects.equals(last.getValue(), snapshot.getValue());
+            resuming = false;
+            last = snapshot;
+            // Nothing happened while paused: consumers already show this
+            if (unchanged) return;
+            for (Object c : new ArrayList<>(consumers)) ((ValueEventListener) c).onDataChange(snapshot);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            for (Object c : new ArrayList<>(consumers)) ((ValueEventListener) c).onCancelled(error);
+        }
+    }
+
+    private final class ChildEntry extends Entry implements ChildEventListener {
+        // What consumers have been told so far, so a resume can replay only the difference
+        final Map<String, DataSnapshot> children = new LinkedHashMap<>();
+        final Set<String> seenSinceAttach = new HashSet<>();
+        boolean catchingUp;
+        int generation;
+
+        ChildEntry(String key, Query query) {
+            super(key, query);
+        }
+
+        @Override
+        void onAttach() {
+            int attachGeneration = ++generation;
+            catchingUp = !children.isEmpty();
+            seenSinceAttach.clear();
+            query.addChildEventListener(this);
+            if (!catchingUp) return;
+
+            // Value events fire after the initial child events: anything not re-seen by then is gone
+            query.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    if (attachGeneration != generation || !attached) return;
+                    for (String childKey : new ArrayList<>(children.keySet())) {
+                        if (!seenSinceAttach.contains(childKey)) onChildRemoved(children.get(childKey));
+                    }
+                    catchingUp = false;
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {}
+            });
+        }
+
+        @Override
+        void onDetach() {
+            generation++;
+            query.removeEventListener(this);
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+            DataSnapshot known = children.put(snapshot.getKey(), snapshot);
+            if (catchingUp) {
+                seenSinceAttach.add(snapshot.getKey());
+                if (known != null) {
+                    if (!Objects.equals(known.getValue(), snapshot.getValue())) {
+                        onChanged(snapshot, previousChildName);
+                    }
+                    return;
+                }
+            }
+            for (Object c : new ArrayList<>(consumers)) ((ChildEventListener) c).onChildAdded(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+            children.put(snapshot.getKey(), snapshot);
+            onChanged(snapshot, previousChildName);
+        }
+
+        private void onChanged(DataSnapshot snapshot, String previousChildName) {
+            for (Object c : new ArrayList<>(consumers)) ((ChildEventListener) c).onChildChanged(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            children.remove(snapshot.getKey());
+            for (Object c : new ArrayList<>(consumers)) ((ChildEventListener) c).onChildRemoved(snapshot);
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+            for (Object c : new ArrayList<>(consumers)) ((ChildEventListener) c).onChildMoved(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            for (Object c : new ArrayList<>(consumers)) ((ChildEventListener) c).onCancelled(error);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.dts;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.text.format.DateFormat;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.dts.core.RemarkCompaction;
+
+import java.util.Objects;
+
+/** Remarks timeline for StudentDetailActivity, oldest first. */
+public class TimelineAdapter extends ListAdapter<RemarkModel, TimelineAdapter.ViewHolder> {
+
+    private static final DiffUtil.ItemCallback<RemarkModel> DIFF = new DiffUtil.ItemCallback<RemarkModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RemarkModel a, @NonNull RemarkModel b) {
+            return a.getKey().equals(b.getKey());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull RemarkModel a, @NonNull RemarkModel b) {
+            return Objects.equals(a.getStatus(), b.getStatus())
+                    && Objects.equals(a.getComment(), b.getComment())
+                    && a.getTime() == b.getTime();
+        }
+    };
+
+    // Tapping a closed cycle's summary row loads that cycle's remarks from the archive
+    public interface ArchiveListener {
+        void onArchivedCycleClicked(RemarkModel summary);
+    }
+
+    private ArchiveListener archiveListener;
+
+    public TimelineAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    public void setArchiveListener(ArchiveListener listener) {
+        this.archiveListener = listener;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Keys are "<roleKey>/<time>" or "system_<time>"; collisions only affect animations
+        return getItem(position).getKey().hashCode();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_timeline, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        RemarkModel remark = getItem(position);
+        Context ctx = holder.itemView.getContext();
+
+        if (remark.isSystem()) {
+            holder.tvStep.setText(remark.getComment());
+            holder.tvStep.setTextSize(13);
+            holder.tvStep.setTypeface(null, Typeface.ITALIC);
+            holder.tvStep.setTextColor(ContextCompat.getColor(ctx, R.color.gray_500));
+            holder.tvComment.setVisibility(View.GONE);
+            boolean archived = RemarkCompaction.ARCHIVED.equals(remark.getStatus());
+            holder.itemView.setOnClickListener(archived && archiveListener != null
+                    ? v -> archiveListener.onArchivedCycleClicked(remark) : null);
+            holder.itemView.setClickable(archived);
+            return;
+        }
+        holder.itemView.setOnClickListener(null);
+        holder.itemView.setClickable(false);
+
+        String remarkStatus = remark.getStatus();
+        String actionLabel = "";
+        if (remarkStatus != null) {
+            if (remarkStatus.equalsIgnoreCase("Approved"))
+                actionLabel = " (Approved)";
+            else if (remarkStatus.equalsIgnoreCase("Rejected"))
+                actionLabel = " (Rejected)";
+            else if (remarkStatus.equalsIgnoreCase("Commented"))
+                actionLabel = " (Commented)";
+        }
+
+        String formattedTime = remark.getTime() > 0
+                ? DateFormat.format("hh:mm a, dd MMM yyyy", remark.getTime()).toString()
+                : "-";
+
+        holder.tvStep.setText(RoleNames.readable(remark.getRoleKey()) + actionLabel + "    " + formattedTime);
+        holder.tvStep.setTextSize(14);
+        holder.tvStep.setTypeface(null, Typeface.BOLD);
+
+        if ("Approved".equalsIgnoreCase(remarkStatus))
+            holder.tvStep.setTextColor(ContextCompat.getColor(ctx, R.color.green_500));
+        else if ("Rejected".equalsIgnoreCase(remarkStatus))
+            holder.tvStep.setTextColor(ContextCompat.getColor(ctx, R.color.red_500));
+        else
+            holder.tvStep.setTextColor(ContextCompat.getColor(ctx, R.color.gray_700));
+
+        String comment = remark.getComment();
+        if (comment != null && !comment.isEmpty()) {
+            holder.tvComment.setText("\"" + comment + "\"");
+            holder.tvComment.setVisibility(View.VISIBLE);
+        } else {
+            holder.tvComment.setVisibility(View.GONE);
+        }
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView tvStep, tvComment;
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvStep = itemView.findViewById(R.id.tvStep);
+            tvComment = itemView.findViewById(R.id.tvComment);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.dts;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide cache of users/{uid} profiles.
+ * Bounded LRU with a TTL; concurrent lookups of the same uid share one read.
+ */
+public final class UserDirectory {
+
+    private static final int MAX_ENTRIES = 512;
+    private static final long TTL_MS = 10 * 60 * 1000L;
+
+    private static final UserDirectory INSTANCE = new UserDirectory();
+
+    public static UserDirectory getInstance() { return INSTANCE; }
+
+    /** Immutable view of the fields the app reads from users/{uid}. */
+    public static final class UserProfile {
+        private final String uid;
+        private final String name;
+        private final String primaryRole;
+        private final String email;
+        private final String userId;
+
+        UserProfile(String uid, String name, String primaryRole, String email, String userId) {
+            this.uid = uid;
+            this.name = name;
+            this.primaryRole = primaryRole;
+            this.email = email;
+            this.userId = userId;
+        }
+
+        static UserProfile fromSnapshot(DataSnapshot snapshot) {
+            return new UserProfile(
+                    snapshot.getKey(),
+                    snapshot.child("name").getValue(String.class),
+                    snapshot.child("primaryRole").getValue(String.class),
+                    snapshot.child("email").getValue(String.class),
+                    snapshot.child("userId").getValue(String.class));
+        }
+
+        public String getUid() { return uid; }
+        public String getName() { return name; }
+        public String getPrimaryRole() { return primaryRole; }
+        public String getEmail() { return email; }
+        public String getUserId() { return userId; }
+    }
+
+    public interface Callback {
+        /** profile is null when users/{uid} does not exist or the read failed (error set). */
+        void onResult(@Nullable UserProfile profile, @Nullable Exception error);
+    }
+
+    public interface BatchCallback {
+        /** Every requested uid is a key; the value is null for missing users or failed reads. */
+        void onResult(Map<String, UserProfile> profiles);
+    }
+
+    private static final class Entry {
+        final UserProfile profile; // null = user does not exist
+        final long loadedAt;
+
+        Entry(UserProfile profile, long loadedAt) {
+            this.profile = profile;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+
+    private long hits, misses, coalesced;
+    // Bumped by clear(); a read that started before it doesn't repopulate the cache
+    private long generation;
+
+    private UserDirectory() { }
+
+    /** Serves from cache when fresh, otherwise reads users/{uid} (joining any read already in flight). */
+    public void get(String uid, Callback callback) {
+        Entry entry;
+        long readGeneration;
+        synchronized (this) {
+            readGeneration = generation;
+            entry = freshEntry(uid);
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+                List<Callback> waiting = inFlight.get(uid);
+                if (waiting != null) {
+                    coalesced++;
+                    waiting.add(callback);
+                    return;
+                }
+                waiting = new ArrayList<>();
+                waiting.add(callback);
+                inFlight.put(uid, waiting);
+            }
+        }
+
+        if (entry != null) {
+            callback.onResult(entry.profile, null);
+            return;
+        }
+
+        FirebaseDatabase.getInstance().getReference("users").child(uid).get()
+                .addOnCompleteListener(task -> {
+                    UserProfile profile = null;
+                    Exception error = null;
+                    if (task.isSuccessful()) {
+                        DataSnapshot snapshot = task.getResult();
+                        if (snapshot.exists()) profile = UserProfile.fromSnapshot(snapshot);
+                    } else {
+                        error = task.getException();
+                    }
+
+                    List<Callback> waiting;
+                    synchronized (this) {
+                        if (error == null && readGeneration == generation) {
+                            cache.put(uid, new Entry(profile, System.currentTimeMillis()));
+                        }
+                        waiting = inFlight.remove(uid);
+                    }
+                    if (waiting == null) return;
+                    for (Callback c : waiting) c.onResult(profile, error);
+                });
+    }
+
+    /** Resolves several uids at once; duplicates and cached uids cost no extra reads. */
+    public void getAll(Collection<String> uids, BatchCallback callback) {
+        Set<String> unique = new LinkedHashSet<>(uids);
+        Map<String, UserProfile> results = new HashMap<>();
+        if (unique.isEmpty()) {
+            callback.onResult(results);
+            return;
+        }
+
+        int[] remaining = {unique.size()};
+        for (String uid : unique) {
+            get(uid, (profile, error) -> {
+                results.put(uid, profile);
+                if (--remaining[0] == 0) callback.onResult(results);
+            });
+        }
+    }
+
+    /** Cached profile if present and fresh, without triggering a read. */
+    @Nullable
+    public synchronized UserProfile peek(String uid) {
+        Entry entry = freshEntry(uid);
+        return entry != null ? entry.profile : null;
+    }
+
+    /** True if uid has a fresh cache entry (including "user does not exist"). */
+    public synchronized boolean isCached(String uid) {
+        return freshEntry(uid) != null;
+    }
+
+    public synchronized void invalidate(String uid) {
+        cache.remove(uid);
+    }
+
+    /** Drops every profile, e.g. on sign-out; reads still in flight answer their callers but aren't kept. */
+    public synchronized void clear() {
+        cache.clear();
+        generation++;
+    }
+
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    /** Misses that joined a read already in flight instead of issuing their own. */
+    public synchronized long getCoalescedCount() { return coalesced; }
+
+    private Entry freshEntry(String uid) {
+        Entry entry = cache.get(uid);
+        if (entry == null) return null;
+        if (System.currentTimeMillis() - entry.loadedAt > TTL_MS) {
+            cache.remove(uid);
+            return null;
+        }
+        return entry;
+    }
+}
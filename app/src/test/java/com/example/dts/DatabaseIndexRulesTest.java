@@ -0,0 +1,118 @@
+package com.example.dts;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Loads database.rules.json into the local Realtime Database emulator and runs every
+ * query the app issues over REST; the emulator rejects an orderBy without a matching
+ * ".indexOn" with HTTP 400, so an unindexed query fails this test.
+ *
+ * Run with: firebase emulators:exec --only database "./gradlew :app:testDebugUnitTest"
+ * (skipped when FIREBASE_DATABASE_EMULATOR_HOST is not set).
+ */
+public class DatabaseIndexRulesTest {
+
+    private static final String NAMESPACE = "dts-index-test";
+
+    private String host;
+
+    @Before
+    public void loadRules() throws IOException {
+        host = System.getenv("FIREBASE_DATABASE_EMULATOR_HOST");
+        Assume.assumeTrue("Realtime Database emulator not running", host != null && !host.isEmpty());
+
+        File rules = new File("../database.rules.json");
+        if (!rules.exists()) rules = new File("database.rules.json");
+        String body = new String(Files.readAllBytes(rules.toPath()), StandardCharsets.UTF_8);
+
+        Response upload = request("PUT", "/.settings/rules.json", null, body);
+        assertEquals("rules upload: " + upload.body, 200, upload.code);
+    }
+
+    /** StudentDashboardActivity + legacy resubmit lookup in StudentDetailActivity. */
+    @Test
+    public void documentsByStudentId() throws IOException {
+        assertIndexed("/documents", "\"studentId\"", "equalTo=" + enc("\"uid\""));
+    }
+
+    /** StatsReconciler: documents whose state was written after its scan started. */
+    @Test
+    public void documentsByStateWrittenAt() throws IOException {
+        assertIndexed("/documents", "\"state/writtenAt\"", "startAt=0");
+    }
+
+    /** StudentDetailActivity remarks feed (limitToLast / endBefore on time). */
+    @Test
+    public void documentRemarksByTime() throws IOException {
+        assertIndexed("/documentRemarks/someDoc", "\"time\"", "limitToLast=20");
+    }
+
+    /** AdminDashboardActivity inbox pages (InboxPager: key cursors, no index needed). */
+    @Test
+    public void approverInboxPagesByKey() throws IOException {
+        assertIndexed("/approverInbox/someApprover", "\"$key\"",
+                "startAt=" + enc("\"-N\"") + "&limitToFirst=" + InboxPager.PAGE_SIZE);
+    }
+
+    private void assertIndexed(String path, String orderBy, String extra) throws IOException {
+        String query = "orderBy=" + enc(orderBy) + "&" + extra;
+        Response response = request("GET", path + ".json", query, null);
+        assertEquals("query on " + path + " ordered by " + orderBy + " needs an .indexOn rule: " + response.body,
+                200, response.code);
+    }
+
+    private static final class Response {
+        final int code;
+        final String body; // the emulator's error message; empty on success
+
+        Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    private Response request(String method, String path, String query, String body) throws IOException {
+        String url = "http://" + host + path + "?ns=" + NAMESPACE + (query != null ? "&" + query : "");
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod(method);
+        // "owner" is the emulator's admin credential: bypasses security rules, not index checks
+        conn.setRequestProperty("Authorization", "Bearer owner");
+        if (body != null) {
+            conn.setDoOutput(true);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int code = conn.getResponseCode();
+        String error = "";
+        InputStream err = code != 200 ? conn.getErrorStream() : null;
+        if (err != null) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int n;
+            while ((n = err.read(chunk)) > 0) buf.write(chunk, 0, n);
+            error = buf.toString("UTF-8");
+        }
+        conn.disconnect();
+        return new Response(code, error);
+    }
+
+    private static String enc(String s) throws IOException {
+        return URLEncoder.encode(s, "UTF-8");
+    }
+}
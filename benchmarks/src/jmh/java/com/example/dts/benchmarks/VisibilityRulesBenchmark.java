@@ -0,0 +1,116 @@
+package com.example.dts.benchmarks;
+
+import com.example.dts.core.ApproverView;
+import com.example.dts.core.DocumentRecord;
+import com.example.dts.core.Keys;
+import com.example.dts.core.RemarkRecord;
+import com.example.dts.core.VisibilityRules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark op = one document evaluated for one approver, so the throughput is documents/s
+ * and the gc profiler's gc.alloc.rate.norm is bytes allocated per document.
+ *
+ * Data is synthetic but shaped like production: 300 approvers, chains of 2-4, 3-30 remarks per
+ * document with occasional resubmission cycles. withSummary=false exercises the remark scan
+ * used for documents that predate the write-time summary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VisibilityRulesBenchmark {
+
+    private static final int APPROVERS = 300;
+    private static final String[] STATUSES = {"Pending", "Approved", "Rejected"};
+    private static final String[] TYPES = {"Bonafide", "Transfer Certificate", "NOC", "Fee Receipt", "Leave"};
+
+    @Param({"1000", "10000", "100000"})
+    public int documents;
+
+    @Param({"true", "false"})
+    public boolean withSummary;
+
+    private DocumentRecord[] docs;
+    private VisibilityRules[] rules;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] emails = new String[APPROVERS];
+        for (int i = 0; i < APPROVERS; i++) emails[i] = "approver" + i + "@dts.com";
+
+        rules = new VisibilityRules[APPROVERS];
+        for (int i = 0; i < APPROVERS; i++) rules[i] = new VisibilityRules(emails[i]);
+
+        docs = new DocumentRecord[documents];
+        for (int d = 0; d < documents; d++) docs[d] = syntheticDocument(random, emails, d);
+    }
+
+    @Benchmark
+    public ApproverView evaluate() {
+        int i = next++;
+        if (next == docs.length) next = 0;
+        // Spread evaluations across approvers: mostly chain members, like an inbox would be
+        return rules[(i * 31) % APPROVERS].evaluate(docs[i]);
+    }
+
+    private DocumentRecord syntheticDocument(Random random, String[] emails, int d) {
+        long createdAt = 1_700_000_000_000L + d * 60_000L;
+        int chainLength = 2 + random.nextInt(3);
+        int index = random.nextInt(chainLength);
+        String status = index == chainLength - 1 ? STATUSES[random.nextInt(3)]
+                : (random.nextInt(5) == 0 ? "Rejected" : "Pending");
+
+        DocumentRecord.Builder doc = DocumentRecord.builder(String.format("-N%08d", d))
+                .documentType(TYPES[random.nextInt(TYPES.length)])
+                .studentId("student" + random.nextInt(50_000))
+                .status(status)
+                .currentApproverIndex(index)
+                .createdAt(createdAt);
+
+        String[] chain = new String[chainLength];
+        for (int c = 0; c < chainLength; c++) {
+            // Make the evaluating approver for this doc a chain member most of the time
+            chain[c] = c == index && random.nextInt(4) != 0
+                    ? emails[(d * 31) % APPROVERS]
+                    : emails[random.nextInt(APPROVERS)];
+            doc.addApprover(chain[c]);
+        }
+
+        long time = createdAt;
+        long lastResubmittedAt = 0L;
+        // Migrated documents keep remarks in documentRemarks/, so only legacy ones carry them
+        if (!withSummary) doc.addRemark(new RemarkRecord(RemarkRecord.SYSTEM, "Submitted", "Submitted", time));
+        int remarks = 3 + random.nextInt(28);
+        for (int r = 1; r < remarks; r++) {
+            time += 1 + random.nextInt(3_600_000);
+            if (random.nextInt(12) == 0) {
+                if (!withSummary) doc.addRemark(new RemarkRecord(RemarkRecord.SYSTEM, "Resubmitted", "Resubmitted", time));
+                lastResubmittedAt = time;
+                continue;
+            }
+            String key = Keys.emailKey(chain[random.nextInt(chainLength)]);
+            String remarkStatus = random.nextInt(3) == 0 ? "Commented" : STATUSES[1 + random.nextInt(2)];
+            if (!withSummary) doc.addRemark(new RemarkRecord(key, remarkStatus, "Looks fine, forwarding", time));
+            else if (!"Commented".equals(remarkStatus)) doc.action(key, remarkStatus, time);
+        }
+
+        for (int c = 0; c < chainLength; c++) {
+            doc.approvalStatus(Keys.emailKey(chain[c]), c < index ? "Approved" : "Pending");
+        }
+        if (withSummary) doc.summary(lastResubmittedAt);
+        return doc.build();
+    }
+}
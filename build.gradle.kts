@@ -1,4 +1,5 @@
 plugins {
     alias(libs.plugins.android.application) apply false
     alias(libs.plugins.google.services) apply false
+    alias(libs.plugins.jmh) apply false
 }
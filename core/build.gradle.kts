@@ -0,0 +1,18 @@
+plugins {
+    `java-library`
+}
+
+// Plain JVM code shared with the app: no Android or Firebase types in here
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// User-facing messages use typographic quotes
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
@@ -0,0 +1,176 @@
+package com.example.dts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Actions the user has taken but the server hasn't confirmed yet, oldest first. The app keeps
+ * them on disk (Store) and hands them to DocumentRepository.flush() a batch at a time, so a
+ * whole queue goes out in one write instead of one round trip per action.
+ *
+ * One batch is in flight at a time. A batch that fails as a whole stays queued and the next
+ * attempt waits an exponentially growing, jittered delay; actions the server refuses are
+ * dropped with their reason, they would never succeed on retry.
+ */
+public final class ActionOutbox {
+
+    public static final int MAX_BATCH = 100;
+    static final long BASE_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    /** Durable copy of the queue; called under the outbox lock, so implementations should not block long. */
+    public interface Store {
+        void put(QueuedAction action);
+        void remove(List<String> actionIds);
+    }
+
+    public interface Listener {
+        /** The action is no longer queued: applied when droppedReason is null, refused otherwise. */
+        void onResolved(QueuedAction action, String droppedReason);
+        void onDepthChanged(int depth);
+    }
+
+    private final Store store;
+    private final LongSupplier clock;
+    private final Random random;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<String, QueuedAction> pending = new LinkedHashMap<>();
+    private final Map<String, String> idsByCoalesceKey = new HashMap<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private long flushStartedAt;
+    private int failures;
+
+    private long flushes;
+    private long lastFlushLatencyMs;
+    private long maxFlushLatencyMs;
+    private long lastQueueDelayMs;
+
+    /** restored: what the Store held when the app last stopped, oldest first. */
+    public ActionOutbox(Store store, List<QueuedAction> restored, LongSupplier clock, Random random) {
+        this.store = store;
+        this.clock = clock;
+        this.random = random;
+        for (QueuedAction action : restored) {
+            pending.put(action.getId(), action);
+            idsByCoalesceKey.putIfAbsent(action.coalesceKey(), action.getId());
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues action, unless an action with the same coalesceKey is still waiting: then that
+     * one is returned and action is discarded. Either way the returned action's id is the one
+     * onResolved will report.
+     */
+    public QueuedAction enqueue(QueuedAction action) {
+        int depth;
+        synchronized (this) {
+            String existing = idsByCoalesceKey.get(action.coalesceKey());
+            if (existing != null) return pending.get(existing);
+            pending.put(action.getId(), action);
+            idsByCoalesceKey.put(action.coalesceKey(), action.getId());
+            store.put(action);
+            depth = pending.size();
+        }
+        for (Listener l : listeners) l.onDepthChanged(depth);
+        return action;
+    }
+
+    /** Up to MAX_BATCH oldest actions, now in flight; empty if a batch is already out or nothing is queued. */
+    public synchronized List<QueuedAction> nextBatch() {
+        if (!inFlight.isEmpty() || pending.isEmpty()) return Collections.emptyList();
+        List<QueuedAction> batch = new ArrayList<>(Math.min(MAX_BATCH, pending.size()));
+        for (QueuedAction action : pending.values()) {
+            if (batch.size() == MAX_BATCH) break;
+            batch.add(action);
+            inFlight.add(action.getId());
+        }
+        flushStartedAt = clock.getAsLong();
+        return batch;
+    }
+
+    /** The batch was written; dropped holds actionId -> reason for the ones the server refused. */
+    public void onFlushed(List<QueuedAction> batch, Map<String, String> dropped) {
+        List<String> ids = new ArrayList<>(batch.size());
+        int depth;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            long oldest = now;
+            for (QueuedAction action : batch) {
+                ids.add(action.getId());
+                pending.remove(action.getId());
+                idsByCoalesceKey.remove(action.coalesceKey());
+                oldest = Math.min(oldest, action.getTime());
+            }
+            inFlight.clear();
+            store.remove(ids);
+            failures = 0;
+
+            flushes++;
+            lastFlushLatencyMs = now - flushStartedAt;
+            maxFlushLatencyMs = Math.max(maxFlushLatencyMs, lastFlushLatencyMs);
+            lastQueueDelayMs = now - oldest;
+            depth = pending.size();
+        }
+        for (QueuedAction action : batch) {
+            String reason = dropped.get(action.getId());
+            for (Listener l : listeners) l.onResolved(action, reason);
+        }
+        for (Listener l : listeners) l.onDepthChanged(depth);
+    }
+
+    /** Nothing in the batch was written; returns how long to wait before the next attempt. */
+    public synchronized long onFlushFailed() {
+        inFlight.clear();
+        failures++;
+        return backoffMs();
+    }
+
+    /** Connectivity came back: the next attempt shouldn't wait out a delay earned while offline. */
+    public synchronized void resetBackoff() {
+        failures = 0;
+    }
+
+    /** Half the capped exponential delay, plus up to the other half at random, so clients spread out. */
+    public synchronized long backoffMs() {
+        if (failures == 0) return 0;
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(failures - 1, 20));
+        return cap / 2 + (long) (random.nextDouble() * (cap / 2));
+    }
+
+    // ---------------------------------------------------------------- metrics
+
+    public synchronized int getDepth() { return pending.size(); }
+    public synchronized boolean isFlushing() { return !inFlight.isEmpty(); }
+    /** Failed attempts since the last successful flush. */
+    public synchronized int getFailureCount() { return failures; }
+    public synchronized long getFlushCount() { return flushes; }
+    /** Round trip of the last successful flush, from nextBatch() to onFlushed(). */
+    public synchronized long getLastFlushLatencyMs() { return lastFlushLatencyMs; }
+    public synchronized long getMaxFlushLatencyMs() { return maxFlushLatencyMs; }
+    /** How long the oldest action of the last flushed batch waited, from the tap to the server's answer. */
+    public synchronized long getLastQueueDelayMs() { return lastQueueDelayMs; }
+
+    /** Age of the oldest queued action; 0 when the queue is empty. */
+    public synchronized long getOldestAgeMs() {
+        if (pending.isEmpty()) return 0;
+        return Math.max(0, clock.getAsLong() - pending.values().iterator().next().getTime());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.dts.core;
+
+import java.util.List;
+
+/**
+ * documents/{id}/state: where a document is in its approver chain. chainVersion is bumped on
+ * every resubmit, so a transition planned against an older chain can be told apart.
+ */
+public final class ApprovalState {
+
+    public static final ApprovalState INITIAL = new ApprovalState(0, "Pending", 0L);
+
+    private final int index;
+    private final String status;
+    private final long chainVersion;
+
+    public ApprovalState(int index, String status, long chainVersion) {
+        this.index = index;
+        this.status = status;
+        this.chainVersion = chainVersion;
+    }
+
+    public int getIndex() { return index; }
+    public String getStatus() { return status; }
+    public long getChainVersion() { return chainVersion; }
+
+    /** Same document, new cycle: back to the first approver. */
+    public ApprovalState resubmitted() {
+        return new ApprovalState(0, "Pending", chainVersion + 1);
+    }
+
+    /**
+     * Applies "Approved" or "Rejected" by approverEmail, if it is their turn in the cycle the
+     * caller read chain from (expectedChainVersion). Pure: the caller does the compare-and-set.
+     */
+    public TransitionResult apply(List<String> chain, long expectedChainVersion,
+                                  String approverEmail, String action) {
+        return apply(chain, expectedChainVersion, -1, approverEmail, action);
+    }
+
+    /**
+     * As above, and the document must still be at expectedIndex (the stage the approver saw
+     * when they tapped; -1 to skip), so a decision never lands on a later stage of the chain.
+     */
+    public TransitionResult apply(List<String> chain, long expectedChainVersion, int expectedIndex,
+                                  String approverEmail, String action) {
+        String me = approverEmail.trim().toLowerCase();
+        if (chainVersion != expectedChainVersion) {
+            return TransitionResult.conflict("This request was resubmitted, please reopen it.");
+        }
+        if (!"Pending".equalsIgnoreCase(status)) {
+            return TransitionResult.conflict("This request is already " + status + ".");
+        }
+        if (index >= chain.size() || !me.equals(chain.get(index).trim().toLowerCase())) {
+            return TransitionResult.conflict("You’re not the current approver for this request.");
+        }
+        if (expectedIndex >= 0 && index != expectedIndex) {
+            return TransitionResult.conflict("This request moved on, please reopen it.");
+        }
+
+        ApprovalState next = "Approved".equals(action) && index + 1 < chain.size()
+                ? new ApprovalState(index + 1, status, chainVersion)
+                : new ApprovalState(index, action, chainVersion);
+        return TransitionResult.committed(index, next);
+    }
+}
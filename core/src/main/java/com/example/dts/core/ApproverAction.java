@@ -0,0 +1,16 @@
+package com.example.dts.core;
+
+/** summary/actions/{approverKey}: an approver's latest Approved / Rejected decision and its time. */
+public final class ApproverAction {
+
+    private final String status;
+    private final long time;
+
+    public ApproverAction(String status, long time) {
+        this.status = status;
+        this.time = time;
+    }
+
+    public String getStatus() { return status; }
+    public long getTime() { return time; }
+}
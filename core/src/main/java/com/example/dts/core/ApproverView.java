@@ -0,0 +1,46 @@
+package com.example.dts.core;
+
+/** How one document appears on one approver's dashboard. */
+public final class ApproverView {
+
+    private final String docId;
+    private final String documentType;
+    private final String displayStatus;
+    private final boolean myTurn;
+    private final boolean canAct;
+    private final String approverStatus;
+    private final String studentId;
+    private final long createdAt;
+    private final long chainVersion;
+    private final int approverIndex;
+
+    ApproverView(String docId, String documentType, String displayStatus, boolean myTurn, boolean canAct,
+                 String approverStatus, String studentId, long createdAt, long chainVersion, int approverIndex) {
+        this.docId = docId;
+        this.documentType = documentType;
+        this.displayStatus = displayStatus;
+        this.myTurn = myTurn;
+        this.canAct = canAct;
+        this.approverStatus = approverStatus;
+        this.studentId = studentId;
+        this.createdAt = createdAt;
+        this.chainVersion = chainVersion;
+        this.approverIndex = approverIndex;
+    }
+
+    public String getDocId() { return docId; }
+    public String getDocumentType() { return documentType; }
+    /** "Pending (Your Turn)", "Approved (You)", or the document status. */
+    public String getDisplayStatus() { return displayStatus; }
+    /** The approver sits at currentApproverIndex, whatever their own status. */
+    public boolean isMyTurn() { return myTurn; }
+    /** myTurn and their approvalStatus is still Pending. */
+    public boolean isCanAct() { return canAct; }
+    /** approvalStatus/{approverKey}, null if absent. */
+    public String getApproverStatus() { return approverStatus; }
+    public String getStudentId() { return studentId; }
+    public long getCreatedAt() { return createdAt; }
+    /** The state an action taken from this row is checked against (QueuedAction.transition). */
+    public long getChainVersion() { return chainVersion; }
+    public int getApproverIndex() { return approverIndex; }
+}
@@ -0,0 +1,226 @@
+package com.example.dts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Turns the plain value tree of documents/{id} (what DataSnapshot.getValue() returns: maps,
+ * lists, Strings, Longs, Doubles) into a DocumentRecord in one walk over its entries.
+ * Status strings are interned, so the thousands of "Pending" in a large result share one instance.
+ */
+public final class DocumentDecoder {
+
+    /** Below this many children a list is decoded on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 512;
+    private static final int WORKERS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int MAX_INTERNED = 64;
+
+    private static final Map<String, String> interned = new ConcurrentHashMap<>();
+    private static ExecutorService pool;
+
+    private DocumentDecoder() { }
+
+    /** Canonical instance for a status value; null for anything that is not a String. */
+    public static String status(Object value) {
+        if (!(value instanceof String)) return null;
+        String s = (String) value;
+        switch (s) {
+            case "Pending": return "Pending";
+            case "Approved": return "Approved";
+            case "Rejected": return "Rejected";
+            case "Commented": return "Commented";
+            case "Submitted": return "Submitted";
+            case "Resubmitted": return "Resubmitted";
+            default:
+                // Bounded, so odd data can't grow this forever
+                if (interned.size() >= MAX_INTERNED) return s;
+                String known = interned.putIfAbsent(s, s);
+                return known != null ? known : s;
+        }
+    }
+
+    /** documents/{id}; null when value is not a document (deleted, or a stray scalar). */
+    public static DocumentRecord decode(String id, Object value) {
+        if (!(value instanceof Map)) return null;
+
+        DocumentRecord.Builder doc = DocumentRecord.builder(id);
+        Object legacyRemarks = null;
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            Object v = e.getValue();
+            switch (String.valueOf(e.getKey())) {
+                case "documentType": doc.documentType(string(v)); break;
+                case "studentId": doc.studentId(string(v)); break;
+                case "status": doc.status(status(v)); break;
+                case "currentApproverIndex": doc.currentApproverIndex((int) number(v)); break;
+                case "createdAt": doc.createdAt(number(v)); break;
+                case "updatedAt": doc.updatedAt(number(v)); break;
+                case "approverChain":
+                    for (Object email : children(v)) {
+                        if (email instanceof String) doc.addApprover((String) email);
+                    }
+                    break;
+                case "approvalStatus":
+                    if (v instanceof Map) {
+                        for (Map.Entry<?, ?> a : ((Map<?, ?>) v).entrySet()) {
+                            doc.approvalStatus(String.valueOf(a.getKey()), status(a.getValue()));
+                        }
+                    }
+                    break;
+                case "state":
+                    if (v instanceof Map) doc.chainVersion(number(((Map<?, ?>) v).get("chainVersion")));
+                    break;
+                case "summary":
+                    if (v instanceof Map) decodeSummary((Map<?, ?>) v, doc);
+                    break;
+                case "remarks": legacyRemarks = v; break;
+                default: break;
+            }
+        }
+
+        // Documents the RemarksMigrator hasn't reached yet: the rules scan inline remarks for
+        // any approver the summary (if there is one yet) has no entry for
+        if (legacyRemarks instanceof Map) {
+            for (Map.Entry<?, ?> role : ((Map<?, ?>) legacyRemarks).entrySet()) {
+                String roleKey = String.valueOf(role.getKey());
+                if (roleKey.startsWith("system_")) {
+                    doc.addRemark(decodeRemark(RemarkRecord.SYSTEM, role.getValue()));
+                } else if (role.getValue() instanceof Map) {
+                    for (Object remark : ((Map<?, ?>) role.getValue()).values()) {
+                        doc.addRemark(decodeRemark(roleKey, remark));
+                    }
+                }
+            }
+        }
+        return doc.build();
+    }
+
+    /** documentRemarks/{id}/{key}: the author comes from "by"; a missing author is the system. */
+    public static RemarkRecord decodeRemark(Object value) {
+        Object by = value instanceof Map ? ((Map<?, ?>) value).get("by") : null;
+        return decodeRemark(by instanceof String ? (String) by : RemarkRecord.SYSTEM, value);
+    }
+
+    /** A remark whose author is known from where it sits (legacy documents/{id}/remarks/{roleKey}/...). */
+    public static RemarkRecord decodeRemark(String by, Object value) {
+        String status = null;
+        String comment = null;
+        long time = 0L;
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                switch (String.valueOf(e.getKey())) {
+                    case "status": status = status(e.getValue()); break;
+                    case "comment": comment = string(e.getValue()); break;
+                    case "time": time = number(e.getValue()); break;
+                    default: break;
+                }
+            }
+        }
+        return new RemarkRecord(by, status, comment, time);
+    }
+
+    /**
+     * Decodes every child of a query result, in order, skipping children that are not documents.
+     * Large results are split into contiguous slices across a small worker pool; key and value
+     * run on the workers too, so the value-tree conversion is parallel as well.
+     */
+    public static <T> List<DocumentRecord> decodeAll(List<T> children, Function<T, String> key,
+                                                     Function<T, Object> value) {
+        int n = children.size();
+        if (n < PARALLEL_THRESHOLD || WORKERS == 1) return decodeSlice(children, key, value);
+
+        // The caller decodes the first slice itself while the workers take the rest
+        int slice = (n + WORKERS) / (WORKERS + 1);
+        List<Future<List<DocumentRecord>>> parts = new ArrayList<>();
+        ExecutorService workers = pool();
+        for (int from = slice; from < n; from += slice) {
+            List<T> part = children.subList(from, Math.min(n, from + slice));
+            parts.add(workers.submit(() -> decodeSlice(part, key, value)));
+        }
+
+        List<DocumentRecord> docs = new ArrayList<>(n);
+        docs.addAll(decodeSlice(children.subList(0, slice), key, value));
+        for (Future<List<DocumentRecord>> part : parts) {
+            try {
+                docs.addAll(part.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while decoding documents", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not decode documents", e.getCause());
+            }
+        }
+        return docs;
+    }
+
+    private static <T> List<DocumentRecord> decodeSlice(List<T> children, Function<T, String> key,
+                                                        Function<T, Object> value) {
+        List<DocumentRecord> docs = new ArrayList<>(children.size());
+        for (T child : children) {
+            DocumentRecord doc = decode(key.apply(child), value.apply(child));
+            if (doc != null) docs.add(doc);
+        }
+        return docs;
+    }
+
+    private static void decodeSummary(Map<?, ?> summary, DocumentRecord.Builder doc) {
+        long resubmittedAt = 0L;
+        for (Map.Entry<?, ?> e : summary.entrySet()) {
+            switch (String.valueOf(e.getKey())) {
+                case "lastResubmittedAt": resubmittedAt = number(e.getValue()); break;
+                case "actions":
+                    if (!(e.getValue() instanceof Map)) break;
+                    for (Map.Entry<?, ?> a : ((Map<?, ?>) e.getValue()).entrySet()) {
+                        RemarkRecord action = decodeRemark(null, a.getValue());
+                        doc.action(String.valueOf(a.getKey()), action.getStatus(), action.getTime());
+                    }
+                    break;
+                default: break;
+            }
+        }
+        doc.summary(resubmittedAt);
+    }
+
+    private static synchronized ExecutorService pool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(WORKERS, r -> {
+                Thread t = new Thread(r, "document-decoder");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return pool;
+    }
+
+    private static String string(Object v) {
+        return v instanceof String ? (String) v : null;
+    }
+
+    private static long number(Object v) {
+        return v instanceof Number ? ((Number) v).longValue() : 0L;
+    }
+
+    /** Firebase hands back index-keyed children as a List, or as a Map once they are sparse. */
+    private static Iterable<?> children(Object v) {
+        if (v instanceof List) return (List<?>) v;
+        if (!(v instanceof Map)) return Collections.emptyList();
+        TreeMap<Integer, Object> byIndex = new TreeMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) v).entrySet()) {
+            try {
+                byIndex.put(Integer.parseInt(String.valueOf(e.getKey())), e.getValue());
+            } catch (NumberFormatException ignored) {
+                // Not an array slot
+            }
+        }
+        return byIndex.values();
+    }
+}
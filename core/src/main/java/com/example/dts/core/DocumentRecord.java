@@ -0,0 +1,155 @@
+package com.example.dts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of documents/{id} as the visibility rules need it.
+ * approverChain entries are trimmed and lower-cased; remarks are only present for
+ * documents that predate the write-time summary (hasSummary() == false).
+ */
+public final class DocumentRecord {
+
+    private final String id;
+    private final String documentType;
+    private final String studentId;
+    private final String status;
+    private final int currentApproverIndex;
+    private final long chainVersion;
+    private final List<String> approverChain;
+    private final long createdAt;
+    private final long updatedAt;
+    private final Map<String, String> approvalStatus;
+    private final boolean hasSummary;
+    private final long lastResubmittedAt;
+    private final Map<String, ApproverAction> actions;
+    private final List<RemarkRecord> remarks;
+
+    private DocumentRecord(Builder b) {
+        this.id = b.id;
+        this.documentType = b.documentType;
+        this.studentId = b.studentId;
+        this.status = b.status;
+        this.currentApproverIndex = b.currentApproverIndex;
+        this.chainVersion = b.chainVersion;
+        this.approverChain = Collections.unmodifiableList(new ArrayList<>(b.approverChain));
+        this.createdAt = b.createdAt;
+        this.updatedAt = b.updatedAt;
+        this.approvalStatus = Collections.unmodifiableMap(new HashMap<>(b.approvalStatus));
+        this.hasSummary = b.hasSummary;
+        this.lastResubmittedAt = b.lastResubmittedAt;
+        this.actions = Collections.unmodifiableMap(new HashMap<>(b.actions));
+        this.remarks = Collections.unmodifiableList(new ArrayList<>(b.remarks));
+    }
+
+    public static Builder builder(String id) {
+        return new Builder(id);
+    }
+
+    /** Builder pre-filled with this document, for producing an updated copy. */
+    public Builder toBuilder() {
+        Builder b = new Builder(id)
+                .documentType(documentType)
+                .studentId(studentId)
+                .status(status)
+                .currentApproverIndex(currentApproverIndex)
+                .chainVersion(chainVersion)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt);
+        b.approverChain.addAll(approverChain);
+        b.approvalStatus.putAll(approvalStatus);
+        b.hasSummary = hasSummary;
+        b.lastResubmittedAt = lastResubmittedAt;
+        b.actions.putAll(actions);
+        b.remarks.addAll(remarks);
+        return b;
+    }
+
+    public String getId() { return id; }
+    public String getDocumentType() { return documentType; }
+    public String getStudentId() { return studentId; }
+    public String getStatus() { return status; }
+    public int getCurrentApproverIndex() { return currentApproverIndex; }
+    /** state/chainVersion: bumped on every resubmit; 0 for documents from before the state node. */
+    public long getChainVersion() { return chainVersion; }
+    public List<String> getApproverChain() { return approverChain; }
+    public long getCreatedAt() { return createdAt; }
+    public long getUpdatedAt() { return updatedAt; }
+    /** approvalStatus/{approverKey}; absent keys mean no status was written. */
+    public Map<String, String> getApprovalStatus() { return approvalStatus; }
+    public boolean hasSummary() { return hasSummary; }
+    public long getLastResubmittedAt() { return lastResubmittedAt; }
+    /** summary/actions by approver key. */
+    public Map<String, ApproverAction> getActions() { return actions; }
+    public List<RemarkRecord> getRemarks() { return remarks; }
+
+    public static final class Builder {
+        private final String id;
+        private String documentType;
+        private String studentId;
+        private String status;
+        private int currentApproverIndex;
+        private long chainVersion;
+        private final List<String> approverChain = new ArrayList<>();
+        private long createdAt;
+        private long updatedAt;
+        private final Map<String, String> approvalStatus = new HashMap<>();
+        private boolean hasSummary;
+        private long lastResubmittedAt;
+        private final Map<String, ApproverAction> actions = new HashMap<>();
+        private final List<RemarkRecord> remarks = new ArrayList<>();
+
+        private Builder(String id) {
+            this.id = id;
+        }
+
+        public Builder documentType(String documentType) { this.documentType = documentType; return this; }
+        public Builder studentId(String studentId) { this.studentId = studentId; return this; }
+        public Builder status(String status) { this.status = status; return this; }
+        public Builder currentApproverIndex(int index) { this.currentApproverIndex = index; return this; }
+        public Builder chainVersion(long chainVersion) { this.chainVersion = chainVersion; return this; }
+        public Builder createdAt(long createdAt) { this.createdAt = createdAt; return this; }
+        public Builder updatedAt(long updatedAt) { this.updatedAt = updatedAt; return this; }
+
+        public Builder addApprover(String email) {
+            approverChain.add(email.trim().toLowerCase());
+            return this;
+        }
+
+        /** Replaces the chain, e.g. with the flow's current one on resubmit. */
+        public Builder approverChain(Iterable<String> emails) {
+            approverChain.clear();
+            for (String email : emails) addApprover(email);
+            return this;
+        }
+
+        public Builder approvalStatus(String approverKey, String status) {
+            approvalStatus.put(approverKey, status);
+            return this;
+        }
+
+        /** Marks the summary node present; lastResubmittedAt is 0 until the first resubmission. */
+        public Builder summary(long lastResubmittedAt) {
+            this.hasSummary = true;
+            this.lastResubmittedAt = lastResubmittedAt;
+            return this;
+        }
+
+        public Builder action(String approverKey, String status, long time) {
+            actions.put(approverKey, new ApproverAction(status, time));
+            return this;
+        }
+
+        public Builder addRemark(RemarkRecord remark) {
+            remarks.add(remark);
+            return this;
+        }
+
+        public DocumentRecord build() {
+            return new DocumentRecord(this);
+        }
+    }
+}
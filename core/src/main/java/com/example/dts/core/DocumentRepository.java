@@ -0,0 +1,26 @@
+package com.example.dts.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The one write the app makes about documents, independent of the backend: the Outbox hands
+ * it every submission and decision. The app uses the Firebase implementation;
+ * InMemoryDocumentRepository drives the same logic from JVM tests and load replays. The screens
+ * read Firebase directly (listeners, paging) and decode through DocumentDecoder. Callbacks may
+ * arrive on any thread the backend chooses (Firebase: the main thread).
+ */
+public interface DocumentRepository {
+
+    interface Callback<T> {
+        /** Exactly one of value / error is meaningful; value may be null for "not found". */
+        void onResult(T value, Exception error);
+    }
+
+    /**
+     * Applies a batch of queued actions (see ActionOutbox) in one write. The map holds every
+     * action id: null when it is applied, now or by an earlier attempt that was never
+     * acknowledged, otherwise the reason it was refused. An error means nothing was written.
+     */
+    void flush(List<QueuedAction> actions, Callback<Map<String, String>> callback);
+}
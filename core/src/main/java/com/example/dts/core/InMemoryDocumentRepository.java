@@ -0,0 +1,414 @@
+package com.example.dts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * DocumentRepository held entirely in memory, with the same write semantics as the Firebase
+ * backend (state compare-and-set, inbox fan-out, summary on resubmit, stats and analytics counters).
+ * flush() is the only write, as in the app; the getters below read the result back for tests.
+ *
+ * Latency is off by default and every callback runs on the calling thread. setLatency()
+ * delays each callback and each change event by fixedMs plus up to jitterMs on a scheduler
+ * thread, the way a slow network would. addChangeListener() sees every document write.
+ */
+public final class InMemoryDocumentRepository implements DocumentRepository {
+
+    public interface DocumentListener {
+        void onDocument(String docId, DocumentRecord doc);
+    }
+
+    /** approverInbox/{key} as child events. */
+    public interface InboxListener {
+        void onAdded(String docId);
+        void onRemoved(String docId);
+    }
+
+    public interface Registration {
+        void remove();
+    }
+
+    private final Object lock = new Object();
+    private final Map<String, DocumentRecord> documents = new HashMap<>();
+    private final Map<String, ApprovalState> states = new HashMap<>();
+    /** docId -> feed key -> remark, in write order (keys as in documentRemarks). */
+    private final Map<String, Map<String, RemarkRecord>> remarks = new HashMap<>();
+    /** docId -> closed cycle -> its remarks, oldest first (documentRemarksArchive). */
+    private final Map<String, Map<Integer, List<RemarkRecord>>> archivedRemarks = new HashMap<>();
+    /** approverKey -> docId -> time the document reached them. */
+    private final Map<String, Map<String, Long>> inboxes = new HashMap<>();
+    private final Map<String, Map<String, String>> studentDocs = new HashMap<>();
+    private final Map<String, List<String>> flows = new LinkedHashMap<>();
+    /** Idempotency keys of every queued action already applied by flush(). */
+    private final Set<String> appliedActions = new HashSet<>();
+    /** stats/: counter path -> value, kept with the same deltas the Firebase backend writes. */
+    private final Map<String, Long> stats = new HashMap<>();
+    /** analytics/: counter path -> value, see StageAnalytics. */
+    private final Map<String, Long> analytics = new HashMap<>();
+
+    private final List<DocumentListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, List<InboxListener>> inboxListeners = new HashMap<>();
+
+    private final LongSupplier clock;
+    private long lastTime;
+    private long nextId;
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private final Random random = new Random(17);
+    private ScheduledExecutorService scheduler;
+    private long lastDueNanos;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+
+    public InMemoryDocumentRepository() {
+        this(System::currentTimeMillis);
+    }
+
+    /** clock supplies write timestamps; they are forced strictly increasing like server time. */
+    public InMemoryDocumentRepository(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // ---------------------------------------------------------------- setup
+
+    public void setLatency(long fixedMs, long jitterMs) {
+        synchronized (lock) {
+            this.latencyMs = fixedMs;
+            this.jitterMs = jitterMs;
+            if ((fixedMs > 0 || jitterMs > 0) && scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "in-memory-repository");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+        }
+    }
+
+    public void putFlow(String documentType, List<String> chain) {
+        synchronized (lock) {
+            flows.put(documentType, new ArrayList<>(chain));
+        }
+    }
+
+    /** Receives every document write, after it is applied. */
+    public Registration addChangeListener(DocumentListener listener) {
+        changeListeners.add(listener);
+        return () -> changeListeners.remove(listener);
+    }
+
+    public void shutdown() {
+        synchronized (lock) {
+            if (scheduler != null) scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // ---------------------------------------------------------------- queries
+
+    public DocumentRecord getDocument(String docId) {
+        synchronized (lock) {
+            return documents.get(docId);
+        }
+    }
+
+    public Registration watchInbox(String approverEmail, InboxListener listener) {
+        String key = Keys.emailKey(approverEmail);
+        List<String> existing;
+        synchronized (lock) {
+            inboxListeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+            existing = new ArrayList<>(inbox(key).keySet());
+        }
+        reads.incrementAndGet();
+        deliver(() -> {
+            for (String docId : existing) listener.onAdded(docId);
+        });
+        return () -> {
+            synchronized (lock) {
+                List<InboxListener> list = inboxListeners.get(key);
+                if (list != null) list.remove(listener);
+            }
+        };
+    }
+
+    /** studentDocs/{uid}: documentType -> docId. */
+    public Map<String, String> getStudentDocuments(String studentId) {
+        synchronized (lock) {
+            Map<String, String> current = studentDocs.get(studentId);
+            return current != null ? new LinkedHashMap<>(current) : Collections.emptyMap();
+        }
+    }
+
+    /** documentRemarks/{id}: the current cycle, after one summary per closed cycle. */
+    public List<RemarkRecord> getRemarks(String docId) {
+        synchronized (lock) {
+            Map<String, RemarkRecord> feed = remarks.get(docId);
+            return feed != null ? new ArrayList<>(feed.values()) : Collections.emptyList();
+        }
+    }
+
+    /** documentRemarksArchive/{id}/{cycle}, oldest first; empty for a cycle that isn't closed. */
+    public List<RemarkRecord> getArchivedRemarks(String docId, int cycle) {
+        synchronized (lock) {
+            Map<Integer, List<RemarkRecord>> cycles = archivedRemarks.get(docId);
+            List<RemarkRecord> list = cycles != null ? cycles.get(cycle) : null;
+            return list != null ? new ArrayList<>(list) : Collections.emptyList();
+        }
+    }
+
+    public ApprovalState getState(String docId) {
+        synchronized (lock) {
+            return states.get(docId);
+        }
+    }
+
+    /** Snapshot of every document, for replays that evaluate dashboards directly. */
+    public List<DocumentRecord> getAllDocuments() {
+        synchronized (lock) {
+            return new ArrayList<>(documents.values());
+        }
+    }
+
+    /** stats/ counters (paths as in StatusCounters); compare with StatusCounters.recount(getAllDocuments()). */
+    public Map<String, Long> getStats() {
+        synchronized (lock) {
+            return new HashMap<>(stats);
+        }
+    }
+
+    /** analytics/ counters (paths as in StageAnalytics). */
+    public Map<String, Long> getAnalytics() {
+        synchronized (lock) {
+            return new HashMap<>(analytics);
+        }
+    }
+
+    public List<String> getInbox(String approverEmail) {
+        synchronized (lock) {
+            return new ArrayList<>(inbox(Keys.emailKey(approverEmail)).keySet());
+        }
+    }
+
+    // ---------------------------------------------------------------- writes
+
+    /** Caller holds lock. */
+    private void writeSubmission(String studentId, String documentType, List<String> chain, String newDocId,
+                                 List<Runnable> fired) {
+        long now = now();
+        Map<String, String> mine = studentDocs.computeIfAbsent(studentId, k -> new LinkedHashMap<>());
+        String docId = mine.get(documentType);
+        boolean resubmit = docId != null && documents.containsKey(docId);
+
+        DocumentRecord.Builder b;
+        if (resubmit) {
+            DocumentRecord old = documents.get(docId);
+            // Back to the first approver's inbox; later approvers drop it until it reaches them again
+            for (int i = chain.size() - 1; i > 0; i--) removeFromInbox(Keys.emailKey(chain.get(i)), docId, fired);
+            b = old.toBuilder().summary(now);
+            StatusCounters.addAll(stats, StatusCounters.resubmitted(old, chain));
+            compactRemarks(docId);
+            states.put(docId, states.getOrDefault(docId, ApprovalState.INITIAL).resubmitted());
+        } else {
+            docId = newDocId != null ? newDocId : String.format("doc%08d", ++nextId);
+            b = DocumentRecord.builder(docId)
+                    .documentType(documentType)
+                    .studentId(studentId)
+                    .createdAt(now)
+                    .summary(0L);
+            states.put(docId, ApprovalState.INITIAL);
+            mine.put(documentType, docId);
+            StatusCounters.addAll(stats, StatusCounters.submitted(studentId, chain));
+        }
+        b.approverChain(chain).status("Pending").currentApproverIndex(0).updatedAt(now)
+                .chainVersion(states.get(docId).getChainVersion());
+        for (String email : chain) b.approvalStatus(Keys.emailKey(email), "Pending");
+
+        StatusCounters.addAll(analytics, StageAnalytics.submitted(documentType, resubmit, now));
+        addToInbox(Keys.emailKey(chain.get(0)), docId, now, fired);
+        remarks.computeIfAbsent(docId, k -> new LinkedHashMap<>()).put("system_" + now, new RemarkRecord(
+                RemarkRecord.SYSTEM, resubmit ? "Resubmitted" : "Submitted",
+                resubmit ? "Document resubmitted by student" : "Document submitted by student", now));
+        store(b.build(), fired);
+    }
+
+    @Override
+    public void flush(List<QueuedAction> actions, Callback<Map<String, String>> callback) {
+        List<Runnable> fired = new ArrayList<>();
+        Map<String, String> results = new LinkedHashMap<>();
+        synchronized (lock) {
+            for (QueuedAction action : actions) {
+                String refused = appliedActions.contains(action.getId()) ? null : apply(action, fired);
+                if (refused == null) appliedActions.add(action.getId());
+                results.put(action.getId(), refused);
+            }
+        }
+        fire(fired);
+        deliver(() -> callback.onResult(results, null));
+    }
+
+    /** Caller holds lock. Null when applied, otherwise why not. */
+    private String apply(QueuedAction action, List<Runnable> fired) {
+        if (action.isSubmission()) {
+            List<String> chain = flows.get(action.getDocumentType());
+            if (chain == null || chain.isEmpty()) return "No approver chain found for " + action.getDocumentType();
+            writeSubmission(action.getStudentId(), action.getDocumentType(), chain, action.getDocId(), fired);
+            return null;
+        }
+        DocumentRecord doc = documents.get(action.getDocId());
+        if (doc == null) return "This request no longer exists.";
+        TransitionResult result = writeTransition(doc, action.getApproverEmail(), action.getAction(),
+                action.getComment(), action.getChainVersion(), action.getApproverIndex(), fired);
+        return result.isCommitted() ? null : result.getConflictReason();
+    }
+
+    /** Caller holds lock. expectedChainVersion / expectedIndex: as QueuedAction records them. */
+    private TransitionResult writeTransition(DocumentRecord doc, String approverEmail, String action,
+                                             String comment, long expectedChainVersion, int expectedIndex,
+                                             List<Runnable> fired) {
+        String docId = doc.getId();
+        long now = now();
+        String me = Keys.emailKey(approverEmail);
+        DocumentRecord.Builder b = doc.toBuilder().updatedAt(now);
+
+        TransitionResult result;
+        if ("Commented".equals(action)) {
+            result = TransitionResult.committed(-1, null);
+        } else {
+            ApprovalState state = states.get(docId);
+            long chainVersion = expectedChainVersion >= 0 ? expectedChainVersion : state.getChainVersion();
+            result = state.apply(doc.getApproverChain(), chainVersion, expectedIndex, approverEmail, action);
+            if (!result.isCommitted()) {
+                conflicts.incrementAndGet();
+                return result;
+            }
+            ApprovalState next = result.getState();
+            states.put(docId, next);
+            StatusCounters.addAll(stats, StatusCounters.decided(doc.getStudentId(), doc.getApproverChain(),
+                    approverEmail, action, result));
+            StatusCounters.addAll(analytics, StageAnalytics.decided(doc, approverEmail, action, result, now));
+            b.status(next.getStatus())
+                    .currentApproverIndex(next.getIndex())
+                    .approvalStatus(me, action)
+                    .action(me, action, now);
+            if (next.getIndex() > result.getPreviousIndex()) {
+                addToInbox(Keys.emailKey(doc.getApproverChain().get(next.getIndex())), docId, now, fired);
+            }
+        }
+        addToInbox(me, docId, now, fired);
+        remarks.computeIfAbsent(docId, k -> new LinkedHashMap<>())
+                .put(me + "_" + now, new RemarkRecord(me, action, comment, now));
+        store(b.build(), fired);
+        return result;
+    }
+
+    /** Caller holds lock. Moves the cycle that just closed to the archive, leaving its summary. */
+    private void compactRemarks(String docId) {
+        Map<String, RemarkRecord> feed = remarks.get(docId);
+        RemarkCompaction.Plan plan = feed != null ? RemarkCompaction.plan(feed) : null;
+        if (plan == null) return;
+        List<RemarkRecord> archived = new ArrayList<>();
+        for (String key : plan.getArchivedKeys()) archived.add(feed.remove(key));
+        archivedRemarks.computeIfAbsent(docId, k -> new HashMap<>()).put(plan.getCycle(), archived);
+        feed.put(plan.getSummaryKey(), plan.getSummary());
+    }
+
+    // ---------------------------------------------------------------- counters
+
+    public long getReadCount() { return reads.get(); }
+    public long getWriteCount() { return writes.get(); }
+    public long getConflictCount() { return conflicts.get(); }
+    /** Change and inbox events delivered to listeners. */
+    public long getEventCount() { return events.get(); }
+
+    public int getDocumentCount() {
+        synchronized (lock) {
+            return documents.size();
+        }
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    /** Caller holds lock. */
+    private long now() {
+        lastTime = Math.max(clock.getAsLong(), lastTime + 1);
+        return lastTime;
+    }
+
+    private Map<String, Long> inbox(String approverKey) {
+        Map<String, Long> inbox = inboxes.get(approverKey);
+        return inbox != null ? inbox : Collections.emptyMap();
+    }
+
+    /** Caller holds lock. */
+    private void store(DocumentRecord doc, List<Runnable> fired) {
+        documents.put(doc.getId(), doc);
+        writes.incrementAndGet();
+        for (DocumentListener l : changeListeners) fired.add(() -> l.onDocument(doc.getId(), doc));
+    }
+
+    /** Caller holds lock. */
+    private void addToInbox(String approverKey, String docId, long time, List<Runnable> fired) {
+        Long previous = inboxes.computeIfAbsent(approverKey, k -> new LinkedHashMap<>()).put(docId, time);
+        List<InboxListener> watchers = inboxListeners.get(approverKey);
+        if (previous == null && watchers != null) {
+            for (InboxListener l : watchers) fired.add(() -> l.onAdded(docId));
+        }
+    }
+
+    /** Caller holds lock. */
+    private void removeFromInbox(String approverKey, String docId, List<Runnable> fired) {
+        Map<String, Long> inbox = inboxes.get(approverKey);
+        if (inbox == null || inbox.remove(docId) == null) return;
+        List<InboxListener> watchers = inboxListeners.get(approverKey);
+        if (watchers != null) {
+            for (InboxListener l : watchers) fired.add(() -> l.onRemoved(docId));
+        }
+    }
+
+    private void fire(List<Runnable> fired) {
+        for (Runnable r : fired) {
+            events.incrementAndGet();
+            deliver(r);
+        }
+    }
+
+    /** Delayed deliveries keep their order, like events on one connection. */
+    private void deliver(Runnable r) {
+        ScheduledExecutorService s;
+        long delayNanos;
+        synchronized (lock) {
+            s = scheduler;
+            long delayMs = latencyMs + (jitterMs > 0 ? (long) (random.nextDouble() * jitterMs) : 0);
+            if (s == null || delayMs <= 0) {
+                s = null;
+                delayNanos = 0;
+            } else {
+                long now = System.nanoTime();
+                lastDueNanos = Math.max(now + TimeUnit.MILLISECONDS.toNanos(delayMs), lastDueNanos);
+                delayNanos = lastDueNanos - now;
+            }
+        }
+        if (s == null) {
+            r.run();
+        } else {
+            s.schedule(r, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
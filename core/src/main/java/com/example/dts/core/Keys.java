@@ -0,0 +1,12 @@
+package com.example.dts.core;
+
+/** Key normalization shared by the app and the rules. */
+public final class Keys {
+
+    private Keys() { }
+
+    /** Same normalization used for approvalStatus / summary keys: "a.b@dts.com" -> "a_b_dts_com". */
+    public static String emailKey(String email) {
+        return email.trim().replace("@", "_").replace(".", "_").toLowerCase();
+    }
+}
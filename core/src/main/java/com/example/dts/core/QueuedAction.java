@@ -0,0 +1,88 @@
+package com.example.dts.core;
+
+/**
+ * One user action waiting in the outbox: a submission, or an approve / reject / comment.
+ * id is the idempotency key: it is minted once, when the user taps, and every retry of the
+ * action writes under it, so a write that landed but was never acknowledged is not repeated.
+ * time is the tap time and becomes the remark time, so retries also write the same remark key.
+ * An approve / reject also records the state the approver saw (chainVersion and index), so an
+ * action that waited offline is refused if the document was resubmitted or moved on meanwhile.
+ */
+public final class QueuedAction {
+
+    public static final String SUBMIT = "submit";
+    public static final String TRANSITION = "transition";
+    /** chainVersion / index not recorded: comments, submissions, and actions queued before they were. */
+    public static final long UNKNOWN = -1;
+
+    private final String id;
+    private final String kind;
+    private final String docId;
+    private final String studentId;
+    private final String documentType;
+    private final String approverEmail;
+    private final String action;
+    private final String comment;
+    private final long chainVersion;
+    private final int approverIndex;
+    private final long time;
+
+    public QueuedAction(String id, String kind, String docId, String studentId, String documentType,
+                        String approverEmail, String action, String comment, long chainVersion,
+                        int approverIndex, long time) {
+        this.id = id;
+        this.kind = kind;
+        this.docId = docId;
+        this.studentId = studentId;
+        this.documentType = documentType;
+        this.approverEmail = approverEmail;
+        this.action = action;
+        this.comment = comment;
+        this.chainVersion = chainVersion;
+        this.approverIndex = approverIndex;
+        this.time = time;
+    }
+
+    /** newDocId is used only if the student has no document of this type yet. */
+    public static QueuedAction submission(String id, String studentId, String documentType, String newDocId,
+                                          long time) {
+        return new QueuedAction(id, SUBMIT, newDocId, studentId, documentType, null, null, null, UNKNOWN,
+                (int) UNKNOWN, time);
+    }
+
+    /**
+     * "Approved", "Rejected" or "Commented" on docId; chainVersion and approverIndex are the
+     * document's state/chainVersion and currentApproverIndex as shown when the approver tapped.
+     */
+    public static QueuedAction transition(String id, String docId, String approverEmail, String action,
+                                          String comment, long chainVersion, int approverIndex, long time) {
+        return new QueuedAction(id, TRANSITION, docId, null, null, approverEmail, action, comment,
+                chainVersion, approverIndex, time);
+    }
+
+    public String getId() { return id; }
+    public String getKind() { return kind; }
+    public boolean isSubmission() { return SUBMIT.equals(kind); }
+    /** The document acted on; for a submission, the id a brand new document gets. */
+    public String getDocId() { return docId; }
+    public String getStudentId() { return studentId; }
+    public String getDocumentType() { return documentType; }
+    public String getApproverEmail() { return approverEmail; }
+    public String getAction() { return action; }
+    public String getComment() { return comment; }
+    /** state/chainVersion the approver acted on; UNKNOWN if not recorded. */
+    public long getChainVersion() { return chainVersion; }
+    /** currentApproverIndex the approver acted on; UNKNOWN if not recorded. */
+    public int getApproverIndex() { return approverIndex; }
+    public long getTime() { return time; }
+
+    /**
+     * Actions with the same key do the same thing, so a second one queued while the first is
+     * still waiting (a double tap) is folded into it. Comments only fold when the text matches.
+     */
+    public String coalesceKey() {
+        if (isSubmission()) return SUBMIT + "/" + studentId + "/" + documentType;
+        String key = TRANSITION + "/" + docId + "/" + Keys.emailKey(approverEmail) + "/" + action;
+        return "Commented".equals(action) ? key + "/" + comment : key;
+    }
+}
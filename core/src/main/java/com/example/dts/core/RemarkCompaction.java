@@ -0,0 +1,84 @@
+package com.example.dts.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closes a remark cycle on resubmit. Everything in the live feed except earlier cycle summaries
+ * belongs to the cycle that just ended: it moves to the archive under that cycle's number, and
+ * one system remark summarizing it takes its place in the feed. The feed then only ever holds
+ * the current cycle plus one short line per closed cycle; the archive is read on demand.
+ */
+public final class RemarkCompaction {
+
+    /** Status of a cycle summary remark. */
+    public static final String ARCHIVED = "Archived";
+    /** Feed key of a cycle summary: "system_cycle_{n}", n counting closed cycles from 1. */
+    public static final String CYCLE_KEY_PREFIX = "system_cycle_";
+
+    private RemarkCompaction() { }
+
+    /** What one resubmission does to the feed. */
+    public static final class Plan {
+        private final int cycle;
+        private final List<String> archivedKeys;
+        private final RemarkRecord summary;
+
+        Plan(int cycle, List<String> archivedKeys, RemarkRecord summary) {
+            this.cycle = cycle;
+            this.archivedKeys = Collections.unmodifiableList(archivedKeys);
+            this.summary = summary;
+        }
+
+        /** Number of the cycle being closed. */
+        public int getCycle() { return cycle; }
+        /** Feed keys that move to the archive, oldest first. */
+        public List<String> getArchivedKeys() { return archivedKeys; }
+        public String getSummaryKey() { return CYCLE_KEY_PREFIX + cycle; }
+        /** Sits where the cycle ended: its time is the cycle's last remark. */
+        public RemarkRecord getSummary() { return summary; }
+    }
+
+    public static boolean isCycleSummary(String key) {
+        return key != null && key.startsWith(CYCLE_KEY_PREFIX);
+    }
+
+    /** The cycle number of a summary key; 0 if it isn't one. */
+    public static int cycleOf(String key) {
+        if (!isCycleSummary(key)) return 0;
+        try {
+            return Integer.parseInt(key.substring(CYCLE_KEY_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** feed: the live remarks by key. Null when there is nothing to archive (a first submission). */
+    public static Plan plan(Map<String, RemarkRecord> feed) {
+        int closed = 0;
+        List<Map.Entry<String, RemarkRecord>> cycle = new ArrayList<>();
+        for (Map.Entry<String, RemarkRecord> e : feed.entrySet()) {
+            if (isCycleSummary(e.getKey())) closed = Math.max(closed, cycleOf(e.getKey()));
+            else cycle.add(e);
+        }
+        if (cycle.isEmpty()) return null;
+        cycle.sort((x, y) -> x.getValue().getTime() != y.getValue().getTime()
+                ? Long.compare(x.getValue().getTime(), y.getValue().getTime())
+                : x.getKey().compareTo(y.getKey()));
+
+        List<String> keys = new ArrayList<>(cycle.size());
+        String outcome = null;
+        for (Map.Entry<String, RemarkRecord> e : cycle) {
+            keys.add(e.getKey());
+            String status = e.getValue().getStatus();
+            if ("Approved".equalsIgnoreCase(status) || "Rejected".equalsIgnoreCase(status)) outcome = status;
+        }
+        int number = closed + 1;
+        long endedAt = cycle.get(cycle.size() - 1).getValue().getTime();
+        String comment = "Cycle " + number + (outcome != null ? " ended " + outcome.toLowerCase() : " ended")
+                + " · " + keys.size() + (keys.size() == 1 ? " remark" : " remarks") + ", tap to show";
+        return new Plan(number, keys, new RemarkRecord(RemarkRecord.SYSTEM, ARCHIVED, comment, endedAt));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.dts.core;
+
+/** One remark on a document: who wrote it ("system" for Submitted / Resubmitted), the status and when. */
+public final class RemarkRecord {
+
+    public static final String SYSTEM = "system";
+
+    private final String by;
+    private final String status;
+    private final String comment;
+    private final long time;
+
+    public RemarkRecord(String by, String status, String comment, long time) {
+        this.by = by;
+        this.status = status;
+        this.comment = comment;
+        this.time = time;
+    }
+
+    /** Approver email key, or SYSTEM. */
+    public String getBy() { return by; }
+    public String getStatus() { return status; }
+    public String getComment() { return comment; }
+    public long getTime() { return time; }
+
+    public boolean isSystem() { return SYSTEM.equals(by); }
+}
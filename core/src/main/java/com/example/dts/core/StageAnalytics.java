@@ -0,0 +1,94 @@
+package com.example.dts.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turnaround analytics kept at write time under analytics/, next to the stats/ counters:
+ *
+ *   stage/approvers/{emailKey}/{bucket}, stage/types/{documentType}/{bucket}
+ *       time-in-stage histograms (BUCKET_BOUNDS_MS); StageHistogram reads median / p95 from them
+ *   daily/{epochDay}/{Submitted|Resubmitted|Decisions|Approved|Rejected}
+ *       throughput per UTC day; Approved / Rejected count finished documents
+ *   queue/{documentType}
+ *       documents of that type still moving through their chain
+ *
+ * A stage runs from the moment the document reached an approver (submission, resubmission or
+ * the previous approver's decision) to that approver's decision. Every entry is a counter, so
+ * writers add the deltas below as increments and history is never rescanned.
+ */
+public final class StageAnalytics {
+
+    static final long MINUTE = 60_000L;
+    static final long HOUR = 60 * MINUTE;
+    static final long DAY = 24 * HOUR;
+
+    /** Upper bounds of the time-in-stage buckets; the last bucket is open-ended. */
+    public static final long[] BUCKET_BOUNDS_MS = {
+            5 * MINUTE, 15 * MINUTE, 30 * MINUTE, HOUR, 2 * HOUR, 4 * HOUR, 8 * HOUR, 12 * HOUR,
+            DAY, 2 * DAY, 3 * DAY, 5 * DAY, 7 * DAY, 14 * DAY, 30 * DAY, Long.MAX_VALUE
+    };
+
+    private StageAnalytics() { }
+
+    public static int bucketOf(long durationMs) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (durationMs <= BUCKET_BOUNDS_MS[i]) return i;
+        }
+        return BUCKET_BOUNDS_MS.length - 1;
+    }
+
+    /** Days since the epoch, UTC; sortable as a key for the next few centuries. */
+    public static long dayOf(long time) {
+        return Math.floorDiv(time, DAY);
+    }
+
+    public static long startOfDay(long day) {
+        return day * DAY;
+    }
+
+    /** When the document reached chain[index] in its current cycle; 0 when unknown. */
+    public static long stageStart(DocumentRecord doc, int index) {
+        long cycleStart = doc.getLastResubmittedAt() > 0 ? doc.getLastResubmittedAt() : doc.getCreatedAt();
+        List<String> chain = doc.getApproverChain();
+        if (index <= 0 || index > chain.size()) return cycleStart;
+        ApproverAction previous = doc.getActions().get(Keys.emailKey(chain.get(index - 1)));
+        return previous != null && previous.getTime() > cycleStart ? previous.getTime() : cycleStart;
+    }
+
+    /** A submission (or resubmission) at time: one more of its type in the queue. */
+    public static Map<String, Long> submitted(String documentType, boolean resubmit, long time) {
+        Map<String, Long> delta = new HashMap<>();
+        delta.put("daily/" + dayOf(time) + "/" + (resubmit ? "Resubmitted" : "Submitted"), 1L);
+        delta.put("queue/" + documentType, 1L);
+        return delta;
+    }
+
+    /**
+     * A committed approve/reject of doc (as read before the write) at time: the stage sample for
+     * the approver and the type, the day's decision count, and the finished document if this
+     * decision ended the chain.
+     */
+    public static Map<String, Long> decided(DocumentRecord doc, String approverEmail, String action,
+                                            TransitionResult result, long time) {
+        Map<String, Long> delta = new HashMap<>();
+        ApprovalState next = result.getState();
+        if (!result.isCommitted() || next == null) return delta;
+
+        long start = stageStart(doc, result.getPreviousIndex());
+        if (start > 0 && time >= start) {
+            String bucket = String.valueOf(bucketOf(time - start));
+            delta.put("stage/approvers/" + Keys.emailKey(approverEmail) + "/" + bucket, 1L);
+            if (doc.getDocumentType() != null) delta.put("stage/types/" + doc.getDocumentType() + "/" + bucket, 1L);
+        }
+
+        String day = "daily/" + dayOf(time) + "/";
+        delta.put(day + "Decisions", 1L);
+        if (!"Pending".equalsIgnoreCase(next.getStatus())) {
+            delta.put(day + ("Rejected".equals(action) ? "Rejected" : "Approved"), 1L);
+            if (doc.getDocumentType() != null) delta.put("queue/" + doc.getDocumentType(), -1L);
+        }
+        return delta;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dts.core;
+
+import java.util.Map;
+
+/**
+ * One analytics/stage/.../{bucket} histogram (see StageAnalytics), with quantiles estimated
+ * by linear interpolation inside the bucket that holds them. Good to a bucket's width, which
+ * is all a turnaround screen needs.
+ */
+public final class StageHistogram {
+
+    private final long[] counts = new long[StageAnalytics.BUCKET_BOUNDS_MS.length];
+    private long total;
+
+    /** bucket index (as stored, a string key) -> count; unknown keys are ignored. */
+    public static StageHistogram of(Map<String, Long> buckets) {
+        StageHistogram histogram = new StageHistogram();
+        for (Map.Entry<String, Long> e : buckets.entrySet()) {
+            try {
+                histogram.add(Integer.parseInt(e.getKey()), e.getValue() != null ? e.getValue() : 0);
+            } catch (NumberFormatException ignored) {
+                // Not a bucket
+            }
+        }
+        return histogram;
+    }
+
+    public void add(int bucket, long count) {
+        if (bucket < 0 || bucket >= counts.length || count <= 0) return;
+        counts[bucket] += count;
+        total += count;
+    }
+
+    public long getCount() { return total; }
+
+    public long medianMs() { return quantileMs(0.5); }
+
+    public long p95Ms() { return quantileMs(0.95); }
+
+    /** Estimated q-quantile in ms; 0 when empty. The open last bucket reports its lower bound. */
+    public long quantileMs(double q) {
+        if (total == 0) return 0;
+        double rank = q * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            long lower = i == 0 ? 0 : StageAnalytics.BUCKET_BOUNDS_MS[i - 1];
+            if (seen + counts[i] >= rank) {
+                if (i == counts.length - 1) return lower;
+                long upper = StageAnalytics.BUCKET_BOUNDS_MS[i];
+                return lower + (long) ((upper - lower) * ((rank - seen) / counts[i]));
+            }
+            seen += counts[i];
+        }
+        return StageAnalytics.BUCKET_BOUNDS_MS[counts.length - 2];
+    }
+}
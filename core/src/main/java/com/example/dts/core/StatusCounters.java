@@ -0,0 +1,120 @@
+package com.example.dts.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard counters kept at write time under stats/: approvers/{emailKey}/{bucket} and
+ * students/{uid}/{bucket}, bucket being Pending, Approved or Rejected like the filter chips.
+ *
+ * A document counts once for its student (its status) and once for every approver whose
+ * dashboard shows it (VisibilityRules, bucketed by display status). Writers add the deltas
+ * below in the same write as the transition; recount() rebuilds the same totals from the
+ * documents themselves, which is how drift is found and repaired.
+ *
+ * Paths are relative to stats/; a delta map only holds non-zero entries.
+ */
+public final class StatusCounters {
+
+    public static final String PENDING = "Pending";
+    public static final String APPROVED = "Approved";
+    public static final String REJECTED = "Rejected";
+
+    private StatusCounters() { }
+
+    public static String approverPath(String approverEmail, String bucket) {
+        return "approvers/" + Keys.emailKey(approverEmail) + "/" + bucket;
+    }
+
+    public static String studentPath(String studentId, String bucket) {
+        return "students/" + studentId + "/" + bucket;
+    }
+
+    /** Pending / Approved / Rejected for a status or display status ("Approved (You)"); null otherwise. */
+    public static String bucket(String status) {
+        if (status == null) return null;
+        String s = status.trim().toLowerCase();
+        if (s.startsWith("pending")) return PENDING;
+        if (s.startsWith("approved")) return APPROVED;
+        if (s.startsWith("rejected")) return REJECTED;
+        return null;
+    }
+
+    /** Every counter this one document adds 1 to. */
+    public static Map<String, Long> contribution(DocumentRecord doc) {
+        Map<String, Long> counts = new HashMap<>();
+        if (doc == null) return counts;
+        String mine = bucket(doc.getStatus());
+        if (doc.getStudentId() != null && mine != null) add(counts, studentPath(doc.getStudentId(), mine), 1);
+        for (String email : new LinkedHashSet<>(doc.getApproverChain())) {
+            ApproverView view = new VisibilityRules(email).evaluate(doc);
+            String bucket = view != null ? bucket(view.getDisplayStatus()) : null;
+            if (bucket != null) add(counts, approverPath(email, bucket), 1);
+        }
+        return counts;
+    }
+
+    /** Totals over docs, from scratch. */
+    public static Map<String, Long> recount(Iterable<DocumentRecord> docs) {
+        Map<String, Long> counts = new HashMap<>();
+        for (DocumentRecord doc : docs) addAll(counts, contribution(doc));
+        return counts;
+    }
+
+    /** A new document: Pending for the student and for the first approver. */
+    public static Map<String, Long> submitted(String studentId, List<String> chain) {
+        Map<String, Long> delta = new HashMap<>();
+        add(delta, studentPath(studentId, PENDING), 1);
+        if (!chain.isEmpty()) add(delta, approverPath(chain.get(0), PENDING), 1);
+        return delta;
+    }
+
+    /**
+     * previous starts a new cycle on chain: whatever it counted for is taken back (decisions of
+     * the closed cycle disappear from those dashboards), then it counts as newly submitted.
+     */
+    public static Map<String, Long> resubmitted(DocumentRecord previous, List<String> chain) {
+        Map<String, Long> delta = new HashMap<>();
+        for (Map.Entry<String, Long> e : contribution(previous).entrySet()) add(delta, e.getKey(), -e.getValue());
+        addAll(delta, submitted(previous.getStudentId(), chain));
+        return delta;
+    }
+
+    /**
+     * A committed approve/reject. Before it the document was Pending on the acting approver's
+     * dashboard and hidden from everyone after them, so no document read is needed: the approver
+     * moves it to their decision, the next approver (if it advanced) gains it as Pending, and the
+     * student's bucket follows the status once the chain is finished.
+     */
+    public static Map<String, Long> decided(String studentId, List<String> chain, String approverEmail,
+                                            String action, TransitionResult result) {
+        Map<String, Long> delta = new HashMap<>();
+        ApprovalState next = result.getState();
+        if (!result.isCommitted() || next == null) return delta;
+
+        add(delta, approverPath(approverEmail, PENDING), -1);
+        add(delta, approverPath(approverEmail, bucket(action)), 1);
+        if (next.getIndex() > result.getPreviousIndex() && next.getIndex() < chain.size()) {
+            add(delta, approverPath(chain.get(next.getIndex()), PENDING), 1);
+        }
+        String status = bucket(next.getStatus());
+        if (studentId != null && status != null && !PENDING.equals(status)) {
+            add(delta, studentPath(studentId, PENDING), -1);
+            add(delta, studentPath(studentId, status), 1);
+        }
+        return delta;
+    }
+
+    /** Adds delta into counts, dropping entries that cancel out. */
+    public static void addAll(Map<String, Long> counts, Map<String, Long> delta) {
+        for (Map.Entry<String, Long> e : delta.entrySet()) add(counts, e.getKey(), e.getValue());
+    }
+
+    private static void add(Map<String, Long> counts, String path, long by) {
+        long value = counts.getOrDefault(path, 0L) + by;
+        if (value == 0) counts.remove(path);
+        else counts.put(path, value);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.dts.core;
+
+/** Outcome of one approval transition: the committed state, or why it was refused. */
+public final class TransitionResult {
+
+    private final boolean committed;
+    private final int previousIndex;
+    private final ApprovalState state;
+    private final String conflictReason;
+
+    private TransitionResult(boolean committed, int previousIndex, ApprovalState state, String conflictReason) {
+        this.committed = committed;
+        this.previousIndex = previousIndex;
+        this.state = state;
+        this.conflictReason = conflictReason;
+    }
+
+    public static TransitionResult committed(int previousIndex, ApprovalState state) {
+        return new TransitionResult(true, previousIndex, state, null);
+    }
+
+    public static TransitionResult conflict(String reason) {
+        return new TransitionResult(false, -1, null, reason);
+    }
+
+    public boolean isCommitted() { return committed; }
+    /** Chain index the approver acted at; -1 for a comment. */
+    public int getPreviousIndex() { return previousIndex; }
+    /** State after the transition; null on conflict and for a comment. */
+    public ApprovalState getState() { return state; }
+    /** User-facing reason; null when committed. */
+    public String getConflictReason() { return conflictReason; }
+}
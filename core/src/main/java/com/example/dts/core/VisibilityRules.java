@@ -0,0 +1,102 @@
+package com.example.dts.core;
+
+import java.util.List;
+
+/**
+ * Decides which documents one approver sees on their dashboard, and with what status.
+ *
+ * An approver sees a document when it is their turn, or once they have approved or rejected
+ * it in the current cycle (since the last resubmission). Documents further up the chain that
+ * haven't reached them, and documents rejected before they acted, stay hidden.
+ */
+public final class VisibilityRules {
+
+    private final String approverEmail;
+    private final String approverKey;
+
+    public VisibilityRules(String approverEmail) {
+        this.approverEmail = approverEmail.trim().toLowerCase();
+        this.approverKey = Keys.emailKey(approverEmail);
+    }
+
+    public String getApproverEmail() { return approverEmail; }
+    public String getApproverKey() { return approverKey; }
+
+    /** Returns null when the document should not be on this approver's dashboard. */
+    public ApproverView evaluate(DocumentRecord doc) {
+        String globalStatus = doc.getStatus();
+        if (doc.getDocumentType() == null || globalStatus == null) return null;
+
+        List<String> chain = doc.getApproverChain();
+        if (chain.isEmpty()) return null;
+
+        int index = doc.getCurrentApproverIndex();
+        boolean isMyTurn = index < chain.size() && approverEmail.equals(chain.get(index));
+
+        String myAction = hasSummaryEntry(doc) ? actionFromSummary(doc) : actionFromRemarks(doc);
+        boolean iHaveActed = myAction != null;
+
+        int myPosition = chain.indexOf(approverEmail);
+        if (myPosition > index && !iHaveActed) return null;
+        if (!(isMyTurn || iHaveActed)) return null;
+        if (!iHaveActed && myPosition != index) return null;
+
+        if ("Rejected".equalsIgnoreCase(globalStatus) && !iHaveActed) return null;
+
+        String displayStatus;
+        if (iHaveActed) {
+            displayStatus = myAction + " (You)";
+        } else if (isMyTurn && "Pending".equalsIgnoreCase(globalStatus)) {
+            displayStatus = "Pending (Your Turn)";
+        } else {
+            displayStatus = globalStatus;
+        }
+
+        String approverStatus = doc.getApprovalStatus().get(approverKey);
+        return new ApproverView(doc.getId(), doc.getDocumentType(), displayStatus, isMyTurn,
+                isMyTurn && "Pending".equalsIgnoreCase(approverStatus),
+                approverStatus, doc.getStudentId(), doc.getCreatedAt(), doc.getChainVersion(), index);
+    }
+
+    /**
+     * The summary only answers for approvers it has an entry for: a decision recorded inline
+     * before the summary existed (a half-migrated document) is still found in the remarks.
+     */
+    private boolean hasSummaryEntry(DocumentRecord doc) {
+        return doc.hasSummary() && doc.getActions().containsKey(approverKey);
+    }
+
+    /** O(1): write-time summary of the latest resubmission and this approver's last decision. */
+    private String actionFromSummary(DocumentRecord doc) {
+        ApproverAction mine = doc.getActions().get(approverKey);
+        return mine != null && mine.getTime() > doc.getLastResubmittedAt() ? mine.getStatus() : null;
+    }
+
+    /** No summary entry for this approver: scan remarks for their last decision since the last resubmission. */
+    private String actionFromRemarks(DocumentRecord doc) {
+        List<RemarkRecord> remarks = doc.getRemarks();
+
+        long lastResubmissionTime = doc.hasSummary() ? doc.getLastResubmittedAt() : 0L;
+        for (int i = 0; i < remarks.size(); i++) {
+            RemarkRecord remark = remarks.get(i);
+            if (remark.isSystem() && "Resubmitted".equalsIgnoreCase(remark.getStatus())
+                    && remark.getTime() > lastResubmissionTime) {
+                lastResubmissionTime = remark.getTime();
+            }
+        }
+
+        String myAction = null;
+        long myActionTime = Long.MIN_VALUE;
+        for (int i = 0; i < remarks.size(); i++) {
+            RemarkRecord remark = remarks.get(i);
+            String status = remark.getStatus();
+            if (status == null || !approverKey.equals(remark.getBy())) continue;
+            if (remark.getTime() <= lastResubmissionTime || remark.getTime() < myActionTime) continue;
+            if (status.equalsIgnoreCase("Approved") || status.equalsIgnoreCase("Rejected")) {
+                myAction = status;
+                myActionTime = remark.getTime();
+            }
+        }
+        return myAction;
+    }
+}
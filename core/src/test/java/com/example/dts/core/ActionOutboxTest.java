@@ -0,0 +1,140 @@
+package com.example.dts.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ActionOutboxTest {
+
+    /** Store that keeps what a restart would restore. */
+    private static final class MemoryStore implements ActionOutbox.Store {
+        final Map<String, QueuedAction> saved = new LinkedHashMap<>();
+
+        @Override public void put(QueuedAction action) { saved.put(action.getId(), action); }
+        @Override public void remove(List<String> actionIds) { saved.keySet().removeAll(actionIds); }
+    }
+
+    private final long[] now = {1_000};
+
+    private ActionOutbox outbox(MemoryStore store) {
+        return new ActionOutbox(store, new ArrayList<>(store.saved.values()), () -> now[0], new Random(3));
+    }
+
+    private static Map<String, String> flush(DocumentRepository repo, List<QueuedAction> batch) {
+        AtomicReference<Map<String, String>> results = new AtomicReference<>();
+        repo.flush(batch, (value, error) -> {
+            assertNull(error);
+            results.set(value);
+        });
+        return results.get();
+    }
+
+    @Test
+    public void doubleTapsCoalesceAndTheQueueSurvivesARestart() {
+        MemoryStore store = new MemoryStore();
+        ActionOutbox outbox = outbox(store);
+
+        QueuedAction first = outbox.enqueue(QueuedAction.submission("a1", "s1", "Bonafide", "doc1", now[0]));
+        QueuedAction again = outbox.enqueue(QueuedAction.submission("a2", "s1", "Bonafide", "doc2", now[0] + 1));
+        outbox.enqueue(QueuedAction.transition("a3", "doc9", "hod@dts.com", "Commented", "seal?",
+                QueuedAction.UNKNOWN, (int) QueuedAction.UNKNOWN, now[0]));
+        outbox.enqueue(QueuedAction.transition("a4", "doc9", "hod@dts.com", "Commented", "date?",
+                QueuedAction.UNKNOWN, (int) QueuedAction.UNKNOWN, now[0]));
+
+        assertSame(first, again);
+        assertEquals(3, outbox.getDepth());
+
+        ActionOutbox restarted = outbox(store);
+        assertEquals(Arrays.asList("a1", "a3", "a4"), ids(restarted.nextBatch()));
+        assertTrue(restarted.nextBatch().isEmpty()); // one batch in flight at a time
+    }
+
+    @Test
+    public void failedFlushesBackOffUntilOneSucceeds() {
+        MemoryStore store = new MemoryStore();
+        ActionOutbox outbox = outbox(store);
+        outbox.enqueue(QueuedAction.transition("a1", "doc1", "hod@dts.com", "Approved", "", 0, 0, now[0]));
+
+        long previousCap = 0;
+        for (int attempt = 1; attempt <= 12; attempt++) {
+            assertEquals(1, outbox.nextBatch().size());
+            long delay = outbox.onFlushFailed();
+            long cap = Math.min(ActionOutbox.MAX_BACKOFF_MS, ActionOutbox.BASE_BACKOFF_MS << (attempt - 1));
+            assertTrue(delay >= cap / 2 && delay <= cap);
+            assertTrue(cap >= previousCap);
+            previousCap = cap;
+        }
+        assertEquals(ActionOutbox.MAX_BACKOFF_MS, previousCap);
+
+        List<QueuedAction> batch = outbox.nextBatch();
+        now[0] += 250;
+        outbox.onFlushed(batch, Collections.emptyMap());
+        assertEquals(0, outbox.getDepth());
+        assertEquals(0, outbox.getFailureCount());
+        assertEquals(250, outbox.getLastFlushLatencyMs());
+        assertEquals(250, outbox.getLastQueueDelayMs());
+        assertTrue(store.saved.isEmpty());
+    }
+
+    @Test
+    public void replayingAnUnacknowledgedBatchWritesNothingTwice() {
+        InMemoryDocumentRepository repo = new InMemoryDocumentRepository();
+        repo.putFlow("Bonafide", Arrays.asList("faculty@dts.com", "hod@dts.com"));
+        ActionOutbox outbox = outbox(new MemoryStore());
+
+        outbox.enqueue(QueuedAction.submission("a1", "s1", "Bonafide", "doc1", now[0]));
+        outbox.enqueue(QueuedAction.transition("a2", "doc1", "faculty@dts.com", "Approved", "ok", 0, 0, now[0]));
+        outbox.enqueue(QueuedAction.transition("a3", "doc1", "faculty@dts.com", "Rejected", "", 0, 0, now[0]));
+        outbox.enqueue(QueuedAction.transition("a4", "nope", "faculty@dts.com", "Approved", "", 0, 0, now[0]));
+        List<QueuedAction> batch = outbox.nextBatch();
+
+        Map<String, String> first = flush(repo, batch);
+        // The acknowledgement was lost: the same batch goes out again
+        Map<String, String> replay = flush(repo, batch);
+
+        assertNull(first.get("a1"));
+        assertNull(first.get("a2"));
+        assertEquals("You’re not the current approver for this request.", first.get("a3"));
+        assertEquals("This request no longer exists.", first.get("a4"));
+        assertNull(replay.get("a2"));
+        assertEquals(1, repo.getDocumentCount());
+        assertEquals(1, repo.getState("doc1").getIndex());
+        assertEquals(2, repo.getRemarks("doc1").size());
+    }
+
+    @Test
+    public void anApprovalQueuedBeforeAResubmitIsRefusedInTheNewCycle() {
+        InMemoryDocumentRepository repo = new InMemoryDocumentRepository();
+        repo.putFlow("Bonafide", Arrays.asList("faculty@dts.com", "hod@dts.com"));
+        flush(repo, Collections.singletonList(QueuedAction.submission("a1", "s1", "Bonafide", "doc1", now[0])));
+        flush(repo, Collections.singletonList(
+                QueuedAction.transition("a2", "doc1", "faculty@dts.com", "Rejected", "", 0, 0, now[0])));
+
+        // Tapped while the first cycle was still at the faculty, sent only after the resubmit
+        QueuedAction stale = QueuedAction.transition("a3", "doc1", "faculty@dts.com", "Approved", "", 0, 0, now[0]);
+        flush(repo, Collections.singletonList(QueuedAction.submission("a4", "s1", "Bonafide", "doc1", now[0])));
+        Map<String, String> results = flush(repo, Collections.singletonList(stale));
+
+        assertEquals("This request was resubmitted, please reopen it.", results.get("a3"));
+        assertEquals(0, repo.getState("doc1").getIndex());
+        assertEquals(1, repo.getState("doc1").getChainVersion());
+    }
+
+    private static List<String> ids(List<QueuedAction> actions) {
+        List<String> ids = new ArrayList<>();
+        for (QueuedAction action : actions) ids.add(action.getId());
+        return ids;
+    }
+}
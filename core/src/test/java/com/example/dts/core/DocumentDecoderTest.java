@@ -0,0 +1,94 @@
+package com.example.dts.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DocumentDecoderTest {
+
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> m = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) m.put((String) keyValues[i], keyValues[i + 1]);
+        return m;
+    }
+
+    private static Map<String, Object> document(String status) {
+        return map(
+                "documentType", "Bonafide",
+                "studentId", "s1",
+                "status", new String(status.toCharArray()),
+                "currentApproverIndex", 1L,
+                "createdAt", 100L,
+                "approverChain", Arrays.asList("Faculty@dts.com", "hod@dts.com"),
+                "approvalStatus", map("faculty_dts_com", "Approved", "hod_dts_com", "Pending"),
+                "summary", map("lastResubmittedAt", 0L,
+                        "actions", map("faculty_dts_com", map("status", "Approved", "time", 150L))));
+    }
+
+    @Test
+    public void decodesEveryFieldInOnePass() {
+        DocumentRecord doc = DocumentDecoder.decode("doc1", document("Pending"));
+
+        assertEquals("doc1", doc.getId());
+        assertEquals("Bonafide", doc.getDocumentType());
+        assertEquals(1, doc.getCurrentApproverIndex());
+        assertEquals(Arrays.asList("faculty@dts.com", "hod@dts.com"), doc.getApproverChain());
+        assertTrue(doc.hasSummary());
+        assertEquals(150L, doc.getActions().get("faculty_dts_com").getTime());
+        assertSame("Pending", doc.getStatus());
+        assertSame("Approved", doc.getApprovalStatus().get("faculty_dts_com"));
+    }
+
+    @Test
+    public void legacyDocumentsKeepInlineRemarksAndSparseChains() {
+        Map<String, Object> chain = map("0", "faculty@dts.com", "2", "hod@dts.com");
+        Map<String, Object> legacy = map(
+                "documentType", "Bonafide",
+                "status", "Pending",
+                "approverChain", chain,
+                "remarks", map(
+                        "system_100", map("status", "Submitted", "time", 100L),
+                        "faculty_dts_com", map("200", map("status", "Approved", "comment", "ok", "time", 200L))));
+
+        DocumentRecord doc = DocumentDecoder.decode("doc2", legacy);
+
+        assertFalse(doc.hasSummary());
+        assertEquals(Arrays.asList("faculty@dts.com", "hod@dts.com"), doc.getApproverChain());
+        assertEquals(2, doc.getRemarks().size());
+        // Same answer the rules give for the migrated form
+        assertEquals("Approved (You)", new VisibilityRules("faculty@dts.com").evaluate(doc).getDisplayStatus());
+    }
+
+    @Test
+    public void nonDocumentsDecodeToNull() {
+        assertNull(DocumentDecoder.decode("gone", null));
+        assertNull(DocumentDecoder.decode("stray", "text"));
+    }
+
+    @Test
+    public void largeResultsDecodeInQueryOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5 * DocumentDecoder.PARALLEL_THRESHOLD; i++) ids.add(String.format("doc%05d", i));
+
+        List<DocumentRecord> docs = DocumentDecoder.decodeAll(ids, id -> id,
+                id -> id.endsWith("7") ? null : document("Approved"));
+
+        int expected = 0;
+        for (String id : ids) {
+            if (id.endsWith("7")) continue;
+            assertEquals(id, docs.get(expected++).getId());
+        }
+        assertEquals(expected, docs.size());
+        assertSame(docs.get(0).getStatus(), docs.get(docs.size() - 1).getStatus());
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.dts.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class InMemoryDocumentRepositoryTest {
+
+    private static final int APPROVERS = 300;
+    private static final int DOCUMENT_TYPES = 100;
+    private static final int STUDENTS = 10_000;
+    private static final int TYPES_PER_STUDENT = 5;
+
+    private static String approver(int n) {
+        return "approver" + n + "@dts.com";
+    }
+
+    /** 100 flows of three approvers each: every one of the 300 approvers sits in exactly one chain. */
+    private static InMemoryDocumentRepository seeded() {
+        InMemoryDocumentRepository repo = new InMemoryDocumentRepository();
+        for (int t = 0; t < DOCUMENT_TYPES; t++) {
+            repo.putFlow("Type" + t, Arrays.asList(approver(t), approver(t + 100), approver(t + 200)));
+        }
+        return repo;
+    }
+
+    /** Runs one repository call and waits for its callback, so the same code works with latency on. */
+    private static <T> T await(Consumer<DocumentRepository.Callback<T>> call) {
+        AtomicReference<T> value = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        call.accept((v, e) -> {
+            value.set(v);
+            error.set(e);
+            done.countDown();
+        });
+        try {
+            assertTrue("callback never arrived", done.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        assertNull(error.get());
+        return value.get();
+    }
+
+    private static final AtomicLong actionIds = new AtomicLong();
+
+    /** Submits through flush, the one write path the app has; returns the document's id. */
+    private static String submit(InMemoryDocumentRepository repo, String studentId, String documentType) {
+        String id = "a" + actionIds.incrementAndGet();
+        assertNull(flush(repo, QueuedAction.submission(id, studentId, documentType, "doc-" + id, 0)));
+        return repo.getStudentDocuments(studentId).get(documentType);
+    }
+
+    /** A decision checked against the state as read; null when applied, otherwise why it was refused. */
+    private static String transition(InMemoryDocumentRepository repo, String docId, String approverEmail,
+                                     String action, String comment) {
+        return flush(repo, QueuedAction.transition("a" + actionIds.incrementAndGet(), docId, approverEmail,
+                action, comment, QueuedAction.UNKNOWN, (int) QueuedAction.UNKNOWN, 0));
+    }
+
+    private static String flush(InMemoryDocumentRepository repo, QueuedAction action) {
+        Map<String, String> refused = await(cb -> repo.flush(Collections.singletonList(action), cb));
+        return refused.get(action.getId());
+    }
+
+    @Test
+    public void replaysFiftyThousandDocumentsThroughEveryApprover() {
+        InMemoryDocumentRepository repo = seeded();
+        long[] changes = {0};
+        repo.addChangeListener((docId, doc) -> changes[0]++);
+
+        List<String> docIds = new ArrayList<>();
+        for (int s = 0; s < STUDENTS; s++) {
+            for (int j = 0; j < TYPES_PER_STUDENT; j++) {
+                String student = "student" + s;
+                String type = "Type" + ((s * TYPES_PER_STUDENT + j) % DOCUMENT_TYPES);
+                docIds.add(submit(repo, student, type));
+            }
+        }
+        assertEquals(50_000, repo.getDocumentCount());
+
+        // Dashboards before anyone acts: only first approvers see documents, all of them their turn
+        int visible = 0;
+        for (int a = 0; a < APPROVERS; a++) {
+            VisibilityRules rules = new VisibilityRules(approver(a));
+            for (String docId : repo.getInbox(approver(a))) {
+                ApproverView view = rules.evaluate(repo.getDocument(docId));
+                assertNotNull(view);
+                assertTrue(view.isMyTurn());
+                visible++;
+            }
+            if (a >= DOCUMENT_TYPES) assertTrue(repo.getInbox(approver(a)).isEmpty());
+        }
+        assertEquals(50_000, visible);
+
+        // Walk every document to the end of its chain; every tenth is rejected by the last approver
+        for (int i = 0; i < docIds.size(); i++) {
+            String docId = docIds.get(i);
+            List<String> chain = repo.getDocument(docId).getApproverChain();
+            for (int step = 0; step < chain.size(); step++) {
+                String action = step == chain.size() - 1 && i % 10 == 0 ? "Rejected" : "Approved";
+                String by = chain.get(step);
+                assertNull(transition(repo, docId, by, action, ""));
+            }
+        }
+
+        Map<String, Set<String>> inboxes = new HashMap<>();
+        for (int a = 0; a < APPROVERS; a++) inboxes.put(approver(a), new HashSet<>(repo.getInbox(approver(a))));
+        for (int i = 0; i < docIds.size(); i++) {
+            DocumentRecord doc = repo.getDocument(docIds.get(i));
+            ApprovalState state = repo.getState(doc.getId());
+            String expected = i % 10 == 0 ? "Rejected" : "Approved";
+            assertEquals(expected, doc.getStatus());
+            assertEquals(expected, state.getStatus());
+            assertEquals(state.getIndex(), doc.getCurrentApproverIndex());
+            for (String email : doc.getApproverChain()) {
+                assertTrue(inboxes.get(email).contains(doc.getId()));
+                ApproverView view = new VisibilityRules(email).evaluate(doc);
+                assertNotNull(view);
+                assertTrue(view.getDisplayStatus().endsWith("(You)"));
+            }
+            assertEquals(1 + doc.getApproverChain().size(), repo.getRemarks(doc.getId()).size());
+        }
+        assertEquals(0, repo.getConflictCount());
+        assertEquals(50_000 * 4, changes[0]);
+        // Write-time counters agree with a recount from the documents
+        assertEquals(StatusCounters.recount(repo.getAllDocuments()), repo.getStats());
+    }
+
+    @Test
+    public void outOfTurnAndFinishedDocumentsAreRefused() {
+        InMemoryDocumentRepository repo = seeded();
+        String docId = submit(repo, "s1", "Type7");
+
+        assertEquals("You’re not the current approver for this request.",
+                transition(repo, docId, approver(107), "Approved", ""));
+        assertNull(transition(repo, docId, approver(7), "Rejected", "no"));
+        assertEquals("This request is already Rejected.", transition(repo, docId, approver(7), "Approved", ""));
+        assertEquals(2, repo.getConflictCount());
+    }
+
+    @Test
+    public void bulkApprovalCommitsValidDocumentsAndReportsTheRest() {
+        InMemoryDocumentRepository repo = seeded();
+        List<String> docIds = new ArrayList<>();
+        for (int s = 0; s < 5; s++) {
+            docIds.add(submit(repo, "student" + s, "Type4"));
+        }
+        String done = docIds.get(3);
+        assertNull(transition(repo, done, approver(4), "Rejected", ""));
+        docIds.add("missing");
+
+        // 🔹 The bulk action is one batch of queued transitions, flushed in a single write
+        List<QueuedAction> batch = new ArrayList<>();
+        for (String docId : docIds) {
+            batch.add(QueuedAction.transition("bulk-" + docId, docId, approver(4), "Approved", "ok",
+                    QueuedAction.UNKNOWN, (int) QueuedAction.UNKNOWN, 0));
+        }
+        Map<String, String> refused = await(cb -> repo.flush(batch, cb));
+
+        assertEquals(docIds.size(), refused.size());
+        assertEquals("This request is already Rejected.", refused.get("bulk-" + done));
+        assertEquals("This request no longer exists.", refused.get("bulk-missing"));
+        for (String docId : docIds.subList(0, 3)) {
+            assertNull(refused.get("bulk-" + docId));
+            assertEquals(1, repo.getState(docId).getIndex());
+            assertTrue(repo.getInbox(approver(104)).contains(docId));
+        }
+        assertFalse(repo.getInbox(approver(104)).contains(done));
+    }
+
+    @Test
+    public void resubmitStartsANewCycleAtTheFirstApprover() {
+        InMemoryDocumentRepository repo = seeded();
+        String docId = submit(repo, "s1", "Type3");
+        assertNull(transition(repo, docId, approver(3), "Approved", ""));
+        assertNull(transition(repo, docId, approver(103), "Rejected", "missing seal"));
+
+        // The resubmission's own new id goes unused: the student's existing document starts over
+        assertEquals(docId, submit(repo, "s1", "Type3"));
+        assertEquals(1, repo.getDocumentCount());
+
+        ApprovalState state = repo.getState(docId);
+        assertEquals(0, state.getIndex());
+        assertEquals("Pending", state.getStatus());
+        assertEquals(1L, state.getChainVersion());
+        assertFalse(repo.getInbox(approver(103)).contains(docId));
+        // The rejection belongs to the previous cycle, so the second approver stops seeing it
+        assertNull(new VisibilityRules(approver(103)).evaluate(repo.getDocument(docId)));
+
+        // The closed cycle left the feed for the archive; one summary line stands in for it
+        List<RemarkRecord> feed = repo.getRemarks(docId);
+        assertEquals(2, feed.size());
+        assertEquals(RemarkCompaction.ARCHIVED, feed.get(0).getStatus());
+        assertEquals("Resubmitted", feed.get(1).getStatus());
+        List<RemarkRecord> archived = repo.getArchivedRemarks(docId, 1);
+        assertEquals(Arrays.asList("Submitted", "Approved", "Rejected"),
+                Arrays.asList(archived.get(0).getStatus(), archived.get(1).getStatus(), archived.get(2).getStatus()));
+        assertEquals(archived.get(2).getTime(), feed.get(0).getTime());
+    }
+
+    @Test
+    public void statusCountersFollowEachWriteAcrossCycles() {
+        InMemoryDocumentRepository repo = seeded();
+        String docId = submit(repo, "s1", "Type3");
+        assertNull(transition(repo, docId, approver(3), "Approved", ""));
+        assertNull(transition(repo, docId, approver(103), "Rejected", ""));
+
+        Map<String, Long> stats = repo.getStats();
+        assertEquals(Long.valueOf(1), stats.get(StatusCounters.approverPath(approver(3), "Approved")));
+        assertEquals(Long.valueOf(1), stats.get(StatusCounters.approverPath(approver(103), "Rejected")));
+        assertEquals(Long.valueOf(1), stats.get(StatusCounters.studentPath("s1", "Rejected")));
+        assertNull(stats.get(StatusCounters.approverPath(approver(3), "Pending")));
+        assertEquals(StatusCounters.recount(repo.getAllDocuments()), stats);
+
+        // The closed cycle's decisions drop off both approvers' counts
+        submit(repo, "s1", "Type3");
+        stats = repo.getStats();
+        assertEquals(Long.valueOf(1), stats.get(StatusCounters.approverPath(approver(3), "Pending")));
+        assertEquals(Long.valueOf(1), stats.get(StatusCounters.studentPath("s1", "Pending")));
+        assertEquals(2, stats.size());
+        assertEquals(StatusCounters.recount(repo.getAllDocuments()), stats);
+    }
+
+    @Test
+    public void latencyDelaysCallbacksAndKeepsEventOrder() throws InterruptedException {
+        InMemoryDocumentRepository repo = seeded();
+        repo.setLatency(5, 10);
+        try {
+            List<String> events = new ArrayList<>();
+            CountDownLatch arrived = new CountDownLatch(2);
+            repo.watchInbox(approver(1), new InMemoryDocumentRepository.InboxListener() {
+                @Override
+                public void onAdded(String docId) {
+                    synchronized (events) { events.add("+" + docId); }
+                    arrived.countDown();
+                }
+
+                @Override
+                public void onRemoved(String docId) {
+                    synchronized (events) { events.add("-" + docId); }
+                    arrived.countDown();
+                }
+            });
+
+            long start = System.nanoTime();
+            String first = submit(repo, "s1", "Type1");
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 5);
+            submit(repo, "s2", "Type1");
+
+            assertTrue(arrived.await(5, TimeUnit.SECONDS));
+            synchronized (events) {
+                assertEquals("+" + first, events.get(0));
+            }
+        } finally {
+            repo.shutdown();
+        }
+    }
+}
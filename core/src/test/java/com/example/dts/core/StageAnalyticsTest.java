@@ -0,0 +1,88 @@
+package com.example.dts.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StageAnalyticsTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    public void quantilesInterpolateInsideTheirBucket() {
+        Map<String, Long> buckets = new HashMap<>();
+        buckets.put("0", 50L);  // up to 5 min
+        buckets.put("3", 45L);  // 30 min .. 1 h
+        buckets.put("8", 5L);   // 12 h .. 1 day
+        StageHistogram histogram = StageHistogram.of(buckets);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5 * MINUTE, histogram.medianMs());
+        assertEquals(60 * MINUTE, histogram.p95Ms());
+        assertEquals(0, StageHistogram.of(new HashMap<>()).medianMs());
+    }
+
+    @Test
+    public void eachDecisionRecordsTheTimeSinceTheDocumentReachedThatApprover() {
+        long start = 20_000 * StageAnalytics.DAY + 9 * StageAnalytics.HOUR;
+        long[] now = {start};
+        InMemoryDocumentRepository repo = new InMemoryDocumentRepository(() -> now[0]);
+        repo.putFlow("Bonafide", Arrays.asList("faculty@dts.com", "hod@dts.com"));
+
+        flush(repo, QueuedAction.submission("a1", "s1", "Bonafide", "doc1", now[0]));
+        String docId = "doc1";
+        now[0] += 10 * MINUTE;
+        flush(repo, decision("a2", docId, "faculty@dts.com", "Approved", now[0]));
+        now[0] += 3 * 60 * MINUTE;
+        flush(repo, decision("a3", docId, "hod@dts.com", "Rejected", now[0]));
+
+        Map<String, Long> analytics = repo.getAnalytics();
+        String day = "daily/" + StageAnalytics.dayOf(start) + "/";
+        assertEquals(Long.valueOf(1), analytics.get("stage/approvers/faculty_dts_com/1"));
+        assertEquals(Long.valueOf(1), analytics.get("stage/approvers/hod_dts_com/5"));
+        assertEquals(Long.valueOf(1), analytics.get("stage/types/Bonafide/5"));
+        assertEquals(Long.valueOf(1), analytics.get(day + "Submitted"));
+        assertEquals(Long.valueOf(2), analytics.get(day + "Decisions"));
+        assertEquals(Long.valueOf(1), analytics.get(day + "Rejected"));
+        assertNull(analytics.get("queue/Bonafide"));
+
+        // The new cycle's first stage starts at the resubmission, not at the original submission
+        now[0] += StageAnalytics.DAY;
+        flush(repo, QueuedAction.submission("a4", "s1", "Bonafide", "doc2", now[0]));
+        now[0] += 20 * MINUTE;
+        flush(repo, decision("a5", docId, "faculty@dts.com", "Approved", now[0]));
+
+        analytics = repo.getAnalytics();
+        assertEquals(Long.valueOf(1), analytics.get("stage/approvers/faculty_dts_com/2"));
+        assertEquals(Long.valueOf(1), analytics.get("queue/Bonafide"));
+        assertEquals(Long.valueOf(1), analytics.get("daily/" + StageAnalytics.dayOf(now[0]) + "/Resubmitted"));
+        assertEquals(3, StageHistogram.of(bucketsOf(analytics, "stage/types/Bonafide/")).getCount());
+    }
+
+    private static QueuedAction decision(String id, String docId, String approverEmail, String action, long time) {
+        return QueuedAction.transition(id, docId, approverEmail, action, "", QueuedAction.UNKNOWN,
+                (int) QueuedAction.UNKNOWN, time);
+    }
+
+    /** No latency is set, so the callback runs before flush returns. */
+    private static void flush(InMemoryDocumentRepository repo, QueuedAction action) {
+        repo.flush(Collections.singletonList(action), (refused, e) -> {
+            assertNull(e);
+            assertNull(refused.get(action.getId()));
+        });
+    }
+
+    private static Map<String, Long> bucketsOf(Map<String, Long> analytics, String prefix) {
+        Map<String, Long> buckets = new HashMap<>();
+        for (Map.Entry<String, Long> e : analytics.entrySet()) {
+            if (e.getKey().startsWith(prefix)) buckets.put(e.getKey().substring(prefix.length()), e.getValue());
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.dts.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class VisibilityRulesTest {
+
+    private static final String FACULTY = "faculty@dts.com";
+    private static final String HOD = "hod@dts.com";
+
+    private static DocumentRecord.Builder doc(String status, int index) {
+        return DocumentRecord.builder("doc1")
+                .documentType("Bonafide")
+                .studentId("s1")
+                .status(status)
+                .currentApproverIndex(index)
+                .addApprover(FACULTY)
+                .addApprover(" HOD@dts.com ")
+                .summary(0L);
+    }
+
+    @Test
+    public void currentApproverSeesTheirTurn() {
+        ApproverView view = new VisibilityRules(FACULTY).evaluate(
+                doc("Pending", 0).approvalStatus(Keys.emailKey(FACULTY), "Pending").build());
+
+        assertEquals("Pending (Your Turn)", view.getDisplayStatus());
+        assertTrue(view.isMyTurn());
+        assertTrue(view.isCanAct());
+    }
+
+    @Test
+    public void laterApproverDoesNotSeeDocumentYet() {
+        assertNull(new VisibilityRules(HOD).evaluate(doc("Pending", 0).build()));
+    }
+
+    @Test
+    public void approverKeepsSeeingWhatTheyActedOn() {
+        ApproverView view = new VisibilityRules(FACULTY).evaluate(
+                doc("Pending", 1).action(Keys.emailKey(FACULTY), "Approved", 100L).build());
+
+        assertEquals("Approved (You)", view.getDisplayStatus());
+        assertFalse(view.isMyTurn());
+    }
+
+    @Test
+    public void decisionsBeforeResubmissionDoNotCount() {
+        DocumentRecord resubmitted = DocumentRecord.builder("doc1")
+                .documentType("Bonafide").status("Pending").currentApproverIndex(0)
+                .addApprover(FACULTY).addApprover(HOD)
+                .summary(200L)
+                .action(Keys.emailKey(HOD), "Rejected", 150L)
+                .build();
+
+        assertNull(new VisibilityRules(HOD).evaluate(resubmitted));
+    }
+
+    @Test
+    public void legacyRemarksGiveTheSameAnswerAsTheSummary() {
+        DocumentRecord legacy = DocumentRecord.builder("doc1")
+                .documentType("Bonafide").status("Rejected").currentApproverIndex(1)
+                .addApprover(FACULTY).addApprover(HOD)
+                .addRemark(new RemarkRecord(RemarkRecord.SYSTEM, "Submitted", "", 10L))
+                .addRemark(new RemarkRecord(Keys.emailKey(FACULTY), "Approved", "", 20L))
+                .addRemark(new RemarkRecord(Keys.emailKey(HOD), "Rejected", "", 30L))
+                .build();
+
+        assertEquals("Rejected (You)", new VisibilityRules(HOD).evaluate(legacy).getDisplayStatus());
+        assertEquals("Approved (You)", new VisibilityRules(FACULTY).evaluate(legacy).getDisplayStatus());
+    }
+
+    @Test
+    public void approverMissingFromTheSummaryFallsBackToRemarks() {
+        DocumentRecord halfMigrated = doc("Rejected", 1)
+                .action(Keys.emailKey(HOD), "Rejected", 30L)
+                .addRemark(new RemarkRecord(Keys.emailKey(FACULTY), "Approved", "", 20L))
+                .build();
+
+        assertEquals("Approved (You)", new VisibilityRules(FACULTY).evaluate(halfMigrated).getDisplayStatus());
+        assertEquals("Rejected (You)", new VisibilityRules(HOD).evaluate(halfMigrated).getDisplayStatus());
+    }
+}
@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "DTS"
 include(":app")
+include(":core")
+include(":benchmarks")